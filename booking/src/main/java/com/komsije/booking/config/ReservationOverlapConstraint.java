@@ -0,0 +1,75 @@
+package com.komsije.booking.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Makes Postgres reject overlapping approved or active reservations of the same
+ * accommodation. Reservations get a generated daterange column over
+ * [startDate, endDate) and a GiST exclusion constraint on it, so the check is
+ * one index probe done by the database when the reservation is written.
+ * The column is not mapped by JPA and is added after Hibernate creates the schema.
+ * It is only created when missing, in one transaction, and startup fails if that isn't
+ * possible since conflict handling in the reservation service depends on it.
+ * Other databases, like H2 in tests, are left without the constraint.
+ */
+@Component
+public class ReservationOverlapConstraint {
+    public static final String CONSTRAINT_NAME = "reservation_no_overlap";
+    private static final Logger LOG = Logger.getAnonymousLogger();
+
+    private static final String[] STATEMENTS = {
+            "CREATE EXTENSION IF NOT EXISTS btree_gist",
+            "ALTER TABLE reservation ADD COLUMN IF NOT EXISTS stay daterange " +
+                    "GENERATED ALWAYS AS (daterange(start_date, end_date, '[)')) STORED",
+            "ALTER TABLE reservation ADD CONSTRAINT " + CONSTRAINT_NAME + " EXCLUDE USING gist " +
+                    "(accommodation_id WITH =, stay WITH &&) WHERE (reservation_status IN ('Approved', 'Active'))"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ReservationOverlapConstraint(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void install() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, CONSTRAINT_NAME);
+                if (Boolean.TRUE.equals(exists)) {
+                    return;
+                }
+                for (String statement : STATEMENTS) {
+                    jdbcTemplate.execute(statement);
+                }
+                LOG.log(Level.INFO, "Installed reservation overlap constraint");
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not install reservation overlap constraint: " + e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
+    public static boolean isViolatedBy(DataIntegrityViolationException exception) {
+        String message = exception.getMostSpecificCause().getMessage();
+        return message != null && message.contains(CONSTRAINT_NAME);
+    }
+}
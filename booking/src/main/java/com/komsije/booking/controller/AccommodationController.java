@@ -5,6 +5,7 @@ import com.komsije.booking.model.AccommodationStatus;
 import com.komsije.booking.model.AccommodationType;
 import com.komsije.booking.model.Reservation;
 import com.komsije.booking.repository.ReservationRepository;
+import com.komsije.booking.search.AmenityFilter;
 import com.komsije.booking.service.interfaces.AccommodationService;
 import com.komsije.booking.validators.AccommodationTypeConstraint;
 import com.komsije.booking.validators.IdentityConstraint;
@@ -80,8 +81,13 @@ public class AccommodationController {
     }
 
     @GetMapping(value = "/amenities")
-    public ResponseEntity<List<AccommodationDto>> getByAmenities(@NotNull @RequestParam List<String> amenities) {
-        List<AccommodationDto> accommodations = accommodationService.getByAmenities(amenities);
+    public ResponseEntity<List<AccommodationDto>> getByAmenities(@RequestParam(required = false) List<String> amenities, @RequestParam(required = false) List<String> all, @RequestParam(required = false) List<String> any, @RequestParam(required = false) List<String> none) {
+        List<String> anyOf = new ArrayList<>();
+        if (amenities != null)
+            anyOf.addAll(amenities);
+        if (any != null)
+            anyOf.addAll(any);
+        List<AccommodationDto> accommodations = accommodationService.getByAmenities(AmenityFilter.of(all, anyOf, none));
         return new ResponseEntity<>(accommodations, HttpStatus.OK);
     }
 
@@ -160,9 +166,53 @@ public class AccommodationController {
         return new ResponseEntity<>(accommodations, HttpStatus.OK);
     }
 
+    @PostMapping(value = "/search/page" , consumes = "application/json")
+    public ResponseEntity<SearchPageDto> searchAccommodationsPage(@RequestBody SearchRequestDto searchRequestDto) {
+        SearchPageDto page = accommodationService.getSearchedPage(searchRequestDto);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/search/top" , consumes = "application/json")
+    public ResponseEntity<List<SearchResponseDto>> searchTopRanked(@RequestBody SearchRequestDto searchRequestDto, @RequestParam(defaultValue = "20") int limit) {
+        List<SearchResponseDto> accommodations = accommodationService.getTopRanked(searchRequestDto, limit);
+        return new ResponseEntity<>(accommodations, HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/search/map" , consumes = "application/json")
+    public ResponseEntity<List<SearchResponseDto>> searchAccommodationsOnMap(@RequestBody MapSearchRequestDto mapSearchRequestDto) {
+        List<SearchResponseDto> accommodations = accommodationService.getAccommodationsOnMap(mapSearchRequestDto);
+        return new ResponseEntity<>(accommodations, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/locations/suggest")
+    public ResponseEntity<List<LocationSuggestionDto>> suggestLocations(@RequestParam String prefix) {
+        List<LocationSuggestionDto> suggestions = accommodationService.suggestLocations(prefix);
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole('Admin')")
+    @GetMapping(value = "/search/cache-stats")
+    public ResponseEntity<SearchCacheStatsDto> getSearchCacheStats() {
+        SearchCacheStatsDto stats = accommodationService.getSearchCacheStats();
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole('Admin')")
+    @GetMapping(value = "/search/coalescing-stats")
+    public ResponseEntity<List<CoalescingStatsDto>> getCoalescingStats() {
+        List<CoalescingStatsDto> stats = accommodationService.getCoalescingStats();
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
     @PostMapping(value="/get-availability-price", consumes = "application/json")
     public ResponseEntity<PriceResponse> getAvailabilityPrice(@RequestBody PriceRequest priceRequest) {
         PriceResponse priceResponse = accommodationService.getAvailabilityPrice(priceRequest);
         return new ResponseEntity<>(priceResponse, HttpStatus.OK);
     }
+
+    @PostMapping(value="/get-availability-price/batch", consumes = "application/json")
+    public ResponseEntity<List<PriceResponse>> getAvailabilityPrices(@RequestBody List<PriceRequest> priceRequests) {
+        List<PriceResponse> priceResponses = accommodationService.getAvailabilityPrices(priceRequests);
+        return new ResponseEntity<>(priceResponses, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,15 @@
+package com.komsije.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoalescingStatsDto {
+    private String name;
+    private long requests;
+    private long coalesced;
+    private double coalescingRatio;
+}
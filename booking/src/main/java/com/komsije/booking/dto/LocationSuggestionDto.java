@@ -0,0 +1,15 @@
+package com.komsije.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationSuggestionDto {
+    private String name;
+    private String country;
+    private LocationType type;
+    private int listings;
+}
@@ -0,0 +1,14 @@
+package com.komsije.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucketDto {
+    private double from;
+    private Double to;
+    private int count;
+}
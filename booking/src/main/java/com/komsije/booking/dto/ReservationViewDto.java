@@ -2,11 +2,13 @@ package com.komsije.booking.dto;
 
 import com.komsije.booking.model.ReservationStatus;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class ReservationViewDto {
     private Long id;
     private LocalDateTime startDate;
@@ -22,4 +24,25 @@ public class ReservationViewDto {
     private Integer numberOfGuests;
     private Integer guestTimesCancelled;
 
+    /**
+     * Used by the JPQL constructor projection in {@code ReservationRepository}, the end date
+     * is derived here because date arithmetic isn't portable across databases.
+     */
+    public ReservationViewDto(Long id, LocalDate startDate, int days, double price, String accommodationName, String city, Long accommodationId,
+                              Long guestId, Long hostId, String guestEmail, String hostEmail, ReservationStatus reservationStatus,
+                              Integer numberOfGuests, int guestTimesCancelled) {
+        this.id = id;
+        this.startDate = startDate.atStartOfDay();
+        this.endDate = startDate.plusDays(days).atStartOfDay();
+        this.price = price;
+        this.accommodationName = accommodationName + " , " + city;
+        this.accommodationId = accommodationId;
+        this.guestId = guestId;
+        this.hostId = hostId;
+        this.guestEmail = guestEmail;
+        this.hostEmail = hostEmail;
+        this.reservationStatus = reservationStatus;
+        this.numberOfGuests = numberOfGuests;
+        this.guestTimesCancelled = guestTimesCancelled;
+    }
 }
@@ -0,0 +1,15 @@
+package com.komsije.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchCacheStatsDto {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+}
@@ -0,0 +1,21 @@
+package com.komsije.booking.dto;
+
+import com.komsije.booking.model.AccommodationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsDto {
+    private Map<AccommodationType, Integer> accommodationTypes = new EnumMap<>(AccommodationType.class);
+    private Map<String, Integer> amenities = new HashMap<>();
+    private List<PriceBucketDto> pricesPerNight = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.komsije.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPageDto {
+    private List<SearchResponseDto> results = new ArrayList<>();
+    private String nextCursor;
+    private SearchFacetsDto facets;
+
+    public SearchPageDto(List<SearchResponseDto> results, String nextCursor) {
+        this.results = results;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Data
 public class SearchRequestDto {
@@ -15,4 +16,12 @@ public class SearchRequestDto {
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDateTime endDate;
     private int guests;
+    private SearchSort sort;
+    private String cursor;
+    private Integer pageSize;
+    private Set<String> allAmenities;
+    private Set<String> anyAmenities;
+    private Set<String> noneAmenities;
+    private boolean facets;
+    private Integer flexibleDays;
 }
@@ -3,6 +3,7 @@ package com.komsije.booking.dto;
 import com.komsije.booking.model.AccommodationType;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -19,6 +20,9 @@ public class SearchResponseDto {
     private Set<String> photos;
     private int cancellationDeadline;
     private double averageGrade;
+    private int reviewCount;
     private double price;
     private double pricePerNight;
+    private LocalDate startDate;
+    private LocalDate endDate;
 }
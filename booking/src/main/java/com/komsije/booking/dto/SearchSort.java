@@ -0,0 +1,5 @@
+package com.komsije.booking.dto;
+
+public enum SearchSort {
+    PRICE, GRADE, ID
+}
@@ -4,6 +4,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -71,6 +72,12 @@ public class ExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<ApiError>(message, HttpStatus.BAD_REQUEST);
     }
 
+    @org.springframework.web.bind.annotation.ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> optimisticLockingFailureException(OptimisticLockingFailureException ex, HttpServletRequest request) {
+        ApiError message = new ApiError(HttpStatus.CONFLICT.value(), "Accommodation was changed concurrently, please try again!", request.getRequestURI());
+        return new ResponseEntity<ApiError>(message, HttpStatus.CONFLICT);
+    }
+
     @org.springframework.web.bind.annotation.ExceptionHandler(HasActiveReservationsException.class)
     public ResponseEntity<ApiError> hasActiveReservationsException(HasActiveReservationsException ex, HttpServletRequest request) {
         ApiError message = new ApiError(HttpStatus.I_AM_A_TEAPOT.value(), ex.getMessage(), request.getRequestURI());
@@ -157,6 +164,12 @@ public class ExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<ApiError>(message, HttpStatus.I_AM_A_TEAPOT);
     }
 
+    @org.springframework.web.bind.annotation.ExceptionHandler(OverlappingReservationException.class)
+    public ResponseEntity<ApiError> overlappingReservationException(OverlappingReservationException ex, HttpServletRequest request) {
+        ApiError message = new ApiError(HttpStatus.CONFLICT.value(), ex.getMessage(), request.getRequestURI());
+        return new ResponseEntity<ApiError>(message, HttpStatus.CONFLICT);
+    }
+
     @org.springframework.web.bind.annotation.ExceptionHandler(ReservationAlreadyExistsException.class)
     public ResponseEntity<ApiError> reportException(ReservationAlreadyExistsException ex, HttpServletRequest request) {
         ApiError message = new ApiError(HttpStatus.I_AM_A_TEAPOT.value(), ex.getMessage(), request.getRequestURI());
@@ -0,0 +1,7 @@
+package com.komsije.booking.exceptions;
+
+public class OverlappingReservationException extends RuntimeException{
+    public OverlappingReservationException(String msg){
+        super(msg);
+    }
+}
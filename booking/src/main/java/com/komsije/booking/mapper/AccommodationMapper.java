@@ -2,13 +2,14 @@ package com.komsije.booking.mapper;
 
 import com.komsije.booking.dto.*;
 import com.komsije.booking.model.Accommodation;
-import com.komsije.booking.model.Address;
+import com.komsije.booking.model.AccommodationListing;
 import com.komsije.booking.model.TimeSlot;
 import com.komsije.booking.repository.AccommodationRepository;
+import com.komsije.booking.search.ListingProjector;
+import com.komsije.booking.search.Rounding;
 import org.mapstruct.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -65,26 +66,27 @@ public abstract class AccommodationMapper {
     public abstract List<AccommodationDto> toDto(List<Accommodation> accommodationList);
     public abstract void update(@MappingTarget Accommodation accommodation, AccommodationDto accommodationDto);
 
-    public SearchResponseDto toSearchedDto(Accommodation accommodation){
+    public SearchResponseDto toSearchedDto(AccommodationListing listing){
         SearchResponseDto searchResponseDto = new SearchResponseDto();
-        searchResponseDto.setId(accommodation.getId());
-        searchResponseDto.setName(accommodation.getName());
-        searchResponseDto.setDescription(accommodation.getDescription());
+        searchResponseDto.setId(listing.getId());
+        searchResponseDto.setName(listing.getName());
+        searchResponseDto.setDescription(listing.getDescription());
         AddressDto addressDto = new AddressDto();
-        Address address = accommodation.getAddress();
-        addressDto.setCity(address.getCity());
-        addressDto.setStreet(address.getStreet());
-        addressDto.setNumber(address.getNumber());
-        addressDto.setId(address.getId());
+        addressDto.setCity(listing.getCity());
+        addressDto.setStreet(listing.getStreet());
+        addressDto.setNumber(listing.getNumber());
+        addressDto.setId(listing.getAddressId());
+        addressDto.setLatitude(listing.getLatitude());
+        addressDto.setLongitude(listing.getLongitude());
         searchResponseDto.setAddress(addressDto);
-        searchResponseDto.setAccommodationType(accommodation.getAccommodationType());
-        searchResponseDto.setAmenities(accommodation.getAmenities());
-        searchResponseDto.setMaxGuests(accommodation.getMaxGuests());
-        searchResponseDto.setMinGuests(accommodation.getMinGuests());
-        searchResponseDto.setPhotos(accommodation.getPhotos());
-        searchResponseDto.setCancellationDeadline(accommodation.getCancellationDeadline());
-        DecimalFormat df = new DecimalFormat("#.##");
-        searchResponseDto.setAverageGrade(Double.parseDouble(df.format(accommodation.getAverageGrade())));
+        searchResponseDto.setAccommodationType(listing.getAccommodationType());
+        searchResponseDto.setAmenities(ListingProjector.getAmenities(listing));
+        searchResponseDto.setMaxGuests(listing.getMaxGuests());
+        searchResponseDto.setMinGuests(listing.getMinGuests());
+        searchResponseDto.setPhotos(ListingProjector.getPhotos(listing));
+        searchResponseDto.setCancellationDeadline(listing.getCancellationDeadline());
+        searchResponseDto.setAverageGrade(Rounding.twoDecimals(listing.getAverageGrade()));
+        searchResponseDto.setReviewCount(listing.getReviewCount());
         return searchResponseDto;
     }
 
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -30,6 +31,7 @@ public class Accommodation {
     private AccommodationType accommodationType;
 
     @ElementCollection
+    @BatchSize(size = 64)
     private Set<String> amenities = new HashSet<>();
 
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
@@ -41,6 +43,7 @@ public class Accommodation {
     @Column(nullable = false)
     private int minGuests;
     @ElementCollection
+    @BatchSize(size = 64)
     private Set<String> photos = new HashSet<>();
     private boolean isPricePerGuest;
     @Column(nullable = false)
@@ -56,7 +59,11 @@ public class Accommodation {
     @ManyToMany(cascade = {CascadeType.ALL}, fetch = FetchType.LAZY, mappedBy = "favorites")
     private Set<Guest> favoriteTo = new HashSet<>();
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "accommodation", cascade = CascadeType.ALL)
+    @BatchSize(size = 64)
     private Set<Review> reviews = new HashSet<>();
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private long version;
 
 
 
@@ -0,0 +1,51 @@
+package com.komsije.booking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Flat, denormalized copy of an accommodation used by the search and listing read paths.
+ * Rows are written by ListingProjector in the same transaction as the accommodation.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(indexes = @Index(columnList = "cityKey, status"))
+public class AccommodationListing {
+    @Id
+    private Long id;
+    @Column(nullable = false)
+    private String name;
+    @Column(length = 2048)
+    private String description;
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private AccommodationStatus status;
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private AccommodationType accommodationType;
+    private Long addressId;
+    private String street;
+    private String number;
+    private String city;
+    private String cityKey;
+    private String country;
+    private Double latitude;
+    private Double longitude;
+    private int minGuests;
+    private int maxGuests;
+    private boolean isPricePerGuest;
+    private int cancellationDeadline;
+    private double averageGrade;
+    private int reviewCount;
+    @Column(length = 2048)
+    private String amenities;
+    @Column(length = 4096)
+    private String photos;
+    private int projectionVersion;
+}
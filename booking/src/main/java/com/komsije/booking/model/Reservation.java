@@ -1,7 +1,7 @@
 package com.komsije.booking.model;
 
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -12,8 +12,14 @@ import java.util.Date;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(columnList = "reservationStatus, startDate"),
+        @Index(columnList = "reservationStatus, endDate"),
+        @Index(columnList = "guestId, reservationStatus"),
+        @Index(columnList = "hostId, reservationStatus"),
+        @Index(columnList = "accommodation_id, reservationStatus, startDate")
+})
 public class Reservation {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +30,10 @@ public class Reservation {
     private LocalDate dateCreated;
     @Column(nullable = false)
     private int days;
+    // first day after the stay, kept in step with startDate and days so queries compare plain dates
+    @Setter(AccessLevel.NONE)
+    @Column(nullable = false)
+    private LocalDate endDate;
     @Column
     private Integer numberOfGuests;
     @Column(nullable = false)
@@ -37,4 +47,33 @@ public class Reservation {
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private ReservationStatus reservationStatus;
+
+    public Reservation(Long id, LocalDate startDate, LocalDate dateCreated, int days, Integer numberOfGuests, double price,
+                       Long hostId, Long guestId, Accommodation accommodation, ReservationStatus reservationStatus) {
+        this.id = id;
+        this.dateCreated = dateCreated;
+        this.numberOfGuests = numberOfGuests;
+        this.price = price;
+        this.hostId = hostId;
+        this.guestId = guestId;
+        this.accommodation = accommodation;
+        this.reservationStatus = reservationStatus;
+        this.startDate = startDate;
+        this.days = days;
+        updateEndDate();
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+        updateEndDate();
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+        updateEndDate();
+    }
+
+    private void updateEndDate() {
+        endDate = startDate == null ? null : startDate.plusDays(days);
+    }
 }
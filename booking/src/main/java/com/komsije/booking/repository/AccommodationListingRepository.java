@@ -0,0 +1,39 @@
+package com.komsije.booking.repository;
+
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.AccommodationListing;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AccommodationListingRepository extends JpaRepository<AccommodationListing, Long> {
+    String LISTING_CONDITIONS = "l.status='Active' " +
+            "AND (:guests = 0 OR :guests BETWEEN l.minGuests AND l.maxGuests) ";
+
+    String SEARCH_CONDITIONS = "l.cityKey = lower(:place) AND " + LISTING_CONDITIONS;
+
+    @Query("SELECT l FROM AccommodationListing l WHERE " + SEARCH_CONDITIONS)
+    List<AccommodationListing> search(@Param("place") String place, @Param("guests") int guests);
+
+    @Query("SELECT l FROM AccommodationListing l WHERE " + SEARCH_CONDITIONS + "AND l.id > :lastId ORDER BY l.id")
+    List<AccommodationListing> searchAfterId(@Param("place") String place, @Param("guests") int guests,
+                                             @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT l FROM AccommodationListing l WHERE " + SEARCH_CONDITIONS +
+            "AND (l.averageGrade < :lastGrade OR (l.averageGrade = :lastGrade AND l.id > :lastId)) " +
+            "ORDER BY l.averageGrade DESC, l.id")
+    List<AccommodationListing> searchAfterGrade(@Param("place") String place, @Param("guests") int guests,
+                                                @Param("lastGrade") double lastGrade, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT l FROM AccommodationListing l WHERE l.id IN :ids AND " + LISTING_CONDITIONS + "ORDER BY l.id")
+    List<AccommodationListing> searchByIds(@Param("ids") Collection<Long> ids, @Param("guests") int guests);
+
+    boolean existsByProjectionVersionNot(int projectionVersion);
+
+    @Query("SELECT DISTINCT a FROM Accommodation a LEFT JOIN FETCH a.address")
+    List<Accommodation> findAccommodationsToProject();
+}
@@ -9,17 +9,22 @@ import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface AccommodationRepository extends JpaRepository<Accommodation, Long> {
     List<Accommodation> getAccommodationByAccommodationType(AccommodationType type);
 
-    @Query("SELECT a FROM Accommodation a WHERE :guests BETWEEN a.minGuests AND a.maxGuests AND a.status='Active'")
-    List<Accommodation> getAccommodationsByNumberOfGuests(@Param("guests") int guests);
-
     @Query("SELECT a FROM Accommodation a WHERE a.status='Active'")
     List<Accommodation> getActive();
 
+    @Query("SELECT a.id, address.latitude, address.longitude FROM Accommodation a JOIN a.address address " +
+            "WHERE a.status='Active' AND address.latitude IS NOT NULL AND address.longitude IS NOT NULL")
+    List<Object[]> findActiveLocations();
+
+    @Query("SELECT a.id, address.city, address.country FROM Accommodation a JOIN a.address address WHERE a.status='Active'")
+    List<Object[]> findActiveCities();
+
 
 /*    @Query("select a from Accommodation a " +
             "where a.address.city = ?1 " +
@@ -35,17 +40,15 @@ public interface AccommodationRepository extends JpaRepository<Accommodation, Lo
   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate);
 
-    //    @Query("select a from Accommodation a " +
-//            "where ?1 in a.amenities")
-//    @Query("SELECT a FROM Accommodation a JOIN a.amenities amenity WHERE amenity IN :amenities")
-//    @Query("SELECT a FROM Accommodation a WHERE " +
-//            "ALL (amenity IN :amenities WHERE amenity MEMBER OF a.amenities)")
-//    @Query("SELECT a FROM Accommodation a WHERE :amenities intersect  a.amenities")
-    @Query("SELECT a FROM Accommodation a JOIN a.amenities amenity WHERE amenity IN :amenities")
-    List<Accommodation> getAccommodationsByAmenities(@Param("amenities") List<String> amenities);
+    @Query("SELECT a.id, amenity FROM Accommodation a LEFT JOIN a.amenities amenity")
+    List<Object[]> findAmenities();
+
     List<Accommodation> findByHostId(Long hostId);
 
     @Query("SELECT a FROM Accommodation a where a.status!='Active' and a.status!='Inactive'")
     List<Accommodation> findUnapproved();
 
+    @Query("SELECT a.id, a.version, slot FROM Accommodation a LEFT JOIN a.availability slot ON slot.isOccupied = false WHERE a.id IN :ids")
+    List<Object[]> findFreeSlots(@Param("ids") Collection<Long> ids);
+
 }
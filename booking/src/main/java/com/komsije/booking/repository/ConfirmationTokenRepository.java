@@ -8,12 +8,17 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Transactional(readOnly = true)
 @Repository
 public interface ConfirmationTokenRepository extends JpaRepository<ConfirmationToken,Long> {
     Optional<ConfirmationToken> findByToken(String token);
+
+    @Query("select c.account.id, c.expiresAt from ConfirmationToken c where c.account.isActivated = false")
+    List<Object[]> findNotActivatedExpirations();
+
     @Transactional
     @Modifying
     @Query("UPDATE ConfirmationToken c " +
@@ -1,36 +1,95 @@
 package com.komsije.booking.repository;
 
+import com.komsije.booking.dto.ReservationViewDto;
 import com.komsije.booking.model.Reservation;
 import com.komsije.booking.model.ReservationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
     List<Reservation> findReservationsByReservationStatus(ReservationStatus reservationStatus);
 
+    boolean existsByGuestIdAndReservationStatus(Long guestId, ReservationStatus reservationStatus);
+
+    boolean existsByHostIdAndReservationStatus(Long hostId, ReservationStatus reservationStatus);
+
     @Query("select r from Reservation r where r.hostId=:id")
     List<Reservation> findByHostId(@Param("id") Long id);
 
     @Query("select r from Reservation r where r.guestId=:id")
     List<Reservation> findByGuestId(@Param("id") Long id);
 
+    String VIEW_PROJECTION = "select new com.komsije.booking.dto.ReservationViewDto(r.id, r.startDate, r.days, r.price, a.name, ad.city, a.id, " +
+            "r.guestId, r.hostId, g.email, h.email, r.reservationStatus, r.numberOfGuests, g.timesCancelled) " +
+            "from Reservation r join r.accommodation a left join a.address ad join Guest g on g.id=r.guestId join Host h on h.id=r.hostId ";
+
+    @Query(VIEW_PROJECTION + "where r.hostId=:id and r.reservationStatus in :statuses")
+    List<ReservationViewDto> findViewsByHostId(@Param("id") Long id, @Param("statuses") Collection<ReservationStatus> statuses);
+
+    @Query(VIEW_PROJECTION + "where r.guestId=:id and r.reservationStatus in :statuses")
+    List<ReservationViewDto> findViewsByGuestId(@Param("id") Long id, @Param("statuses") Collection<ReservationStatus> statuses);
+
     @Query("select r from Reservation r where r.accommodation.id=:accommodationId and r.reservationStatus='Done'")
     List<Reservation> findDoneByAccommodationId(@Param("accommodationId") Long hostId);
 
-    @Query("select r from Reservation r where (r.hostId=:hostId or r.guestId=:hostId) and (r.guestId=:guestId or r.hostId=:guestId) and r.reservationStatus='Done'")
+    @Query("select r from Reservation r where r.reservationStatus='Done' and " +
+            "((r.hostId=:hostId and r.guestId=:guestId) or (r.hostId=:guestId and r.guestId=:hostId))")
     List<Reservation> findDoneByHostIdAndGuestId(@Param("hostId") Long hostId, @Param("guestId") Long guestId);
 
     @Query("select r from Reservation r where r.accommodation.id=:accommodationId and r.reservationStatus='Pending'")
     List<Reservation> findPendingByAccommodationId(@Param("accommodationId") Long accommodationId);
 
+    @Query("select r.id, r.guestId, r.hostId, r.startDate, r.endDate from Reservation r where r.accommodation.id=:accommodationId and r.reservationStatus='Pending'")
+    List<Object[]> findPendingStays(@Param("accommodationId") Long accommodationId);
+
+    @Query("select r.id, r.guestId, r.hostId from Reservation r where r.accommodation.id=:accommodationId and r.reservationStatus='Pending' " +
+            "and r.startDate < :endDate and r.endDate > :startDate")
+    List<Object[]> findPendingOverlapping(@Param("accommodationId") Long accommodationId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     @Query("select r from Reservation r where r.startDate=:startDate and r.accommodation.id=:accommodationId and r.guestId=:guestId and r.reservationStatus!='Cancelled'")
     List<Reservation> getIfExists(@Param("startDate")LocalDate startDate, @Param("accommodationId") Long accommodationId, @Param("guestId") Long guestId);
 
-    @Query("select r from Reservation r where r.accommodation.id=:accommodationId and r.reservationStatus='Done' and year(r.startDate)=:year")
-    List<Reservation> findDoneByAccommodationAndYear(@Param("accommodationId") Long accommodationId, @Param("year") int year);
+    @Query("select count(r) > 0 from Reservation r where r.accommodation.id=:accommodationId and r.reservationStatus in ('Approved', 'Active') " +
+            "and r.startDate < :endDate and r.endDate > :startDate")
+    boolean existsOverlappingBooked(@Param("accommodationId") Long accommodationId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("select r from Reservation r where r.accommodation.id=:accommodationId and r.reservationStatus='Done' and r.startDate >= :from and r.startDate < :to")
+    List<Reservation> findDoneByAccommodationBetween(@Param("accommodationId") Long accommodationId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    default List<Reservation> findDoneByAccommodationAndYear(Long accommodationId, int year) {
+        return findDoneByAccommodationBetween(accommodationId, LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+    }
+
+    @Query("select r.id, r.guestId, r.hostId from Reservation r where r.reservationStatus='Pending' and r.startDate <= :today")
+    List<Object[]> findExpiredPending(@Param("today") LocalDate today, Pageable pageable);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Reservation r set r.reservationStatus='Denied' where r.id in :ids and r.reservationStatus='Pending'")
+    int denyPending(@Param("ids") List<Long> ids);
+
+    @Query("select r.id, r.guestId, r.hostId from Reservation r where r.reservationStatus='Approved' and r.startDate <= :today")
+    List<Object[]> findStartedApproved(@Param("today") LocalDate today, Pageable pageable);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Reservation r set r.reservationStatus='Active' where r.id in :ids and r.reservationStatus='Approved'")
+    int activateApproved(@Param("ids") List<Long> ids);
+
+    @Query("select r.id, r.guestId, r.hostId from Reservation r where r.reservationStatus='Active' and r.endDate <= :today")
+    List<Object[]> findEndedActive(@Param("today") LocalDate today, Pageable pageable);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Reservation r set r.reservationStatus='Done' where r.id in :ids and r.reservationStatus='Active'")
+    int finishActive(@Param("ids") List<Long> ids);
 
 }
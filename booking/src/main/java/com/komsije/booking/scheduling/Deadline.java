@@ -0,0 +1,4 @@
+package com.komsije.booking.scheduling;
+
+public record Deadline(DeadlineKind kind, long entityId, long epochSecond) {
+}
@@ -0,0 +1,5 @@
+package com.komsije.booking.scheduling;
+
+public enum DeadlineKind {
+    ACCOUNT_ACTIVATION
+}
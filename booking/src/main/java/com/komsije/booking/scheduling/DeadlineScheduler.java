@@ -0,0 +1,105 @@
+package com.komsije.booking.scheduling;
+
+import com.komsije.booking.model.Account;
+import com.komsije.booking.repository.AccountRepository;
+import com.komsije.booking.repository.ConfirmationTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps time based work on a {@link TimingWheel} instead of one task per item on the shared
+ * task scheduler. The wheel is ticked every second and handles whatever became due in one
+ * batch per kind. Pending deadlines are rebuilt from the database on startup.
+ */
+@Component
+public class DeadlineScheduler {
+    private final AccountRepository accountRepository;
+    private final ConfirmationTokenRepository confirmationTokenRepository;
+    private final TimingWheel wheel = new TimingWheel(Instant.now().getEpochSecond());
+    private static final long RETRY_DELAY_SECONDS = 60;
+    private static final Logger LOG = Logger.getAnonymousLogger();
+
+    @Autowired
+    public DeadlineScheduler(AccountRepository accountRepository, ConfirmationTokenRepository confirmationTokenRepository) {
+        this.accountRepository = accountRepository;
+        this.confirmationTokenRepository = confirmationTokenRepository;
+    }
+
+    public void schedule(DeadlineKind kind, Long entityId, LocalDateTime dueAt) {
+        long epochSecond = dueAt.toInstant(ZoneOffset.UTC).getEpochSecond();
+        synchronized (wheel) {
+            wheel.schedule(kind, entityId, epochSecond);
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrate() {
+        List<Object[]> rows = confirmationTokenRepository.findNotActivatedExpirations();
+        for (Object[] row : rows) {
+            schedule(DeadlineKind.ACCOUNT_ACTIVATION, (Long) row[0], (LocalDateTime) row[1]);
+        }
+        LOG.log(Level.INFO, "Restored " + rows.size() + " account activation deadlines");
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        List<Deadline> due;
+        synchronized (wheel) {
+            due = wheel.advanceTo(Instant.now().getEpochSecond());
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Long> accountIds = new ArrayList<>();
+        for (Deadline deadline : due) {
+            if (deadline.kind() == DeadlineKind.ACCOUNT_ACTIVATION) {
+                accountIds.add(deadline.entityId());
+            }
+        }
+        try {
+            deleteIfNotActivated(accountIds);
+        } catch (RuntimeException e) {
+            // the wheel already let go of these deadlines, put them back so they aren't lost until a restart
+            LOG.log(Level.WARNING, "Could not handle " + due.size() + " deadlines, retrying in " + RETRY_DELAY_SECONDS + " s", e);
+            long retryAt = Instant.now().getEpochSecond() + RETRY_DELAY_SECONDS;
+            synchronized (wheel) {
+                for (Deadline deadline : due) {
+                    wheel.schedule(deadline.kind(), deadline.entityId(), retryAt);
+                }
+            }
+        }
+    }
+
+    private void deleteIfNotActivated(List<Long> accountIds) {
+        if (accountIds.isEmpty()) {
+            return;
+        }
+        List<Account> expired = new ArrayList<>();
+        for (Account account : accountRepository.findAllById(accountIds)) {
+            if (!account.isActivated()) {
+                expired.add(account);
+            }
+        }
+        accountRepository.deleteAll(expired);
+        if (!expired.isEmpty()) {
+            LOG.log(Level.INFO, "Deleted " + expired.size() + " accounts that weren't activated in time");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.komsije.booking.scheduling;
+
+import com.komsije.booking.repository.ReservationRepository;
+import com.komsije.booking.service.PendingRequestDenier;
+import com.komsije.booking.service.StayTransitioner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves reservations through their date driven states with a few bulk updates instead of
+ * keeping one scheduled task per reservation in memory. Every sweep works from the
+ * database alone, so nothing is lost when the application restarts.
+ */
+@Component
+public class ReservationSweeper {
+    private final ReservationRepository reservationRepository;
+    private final PendingRequestDenier pendingRequestDenier;
+    private final StayTransitioner stayTransitioner;
+    private final TaskScheduler taskScheduler;
+    private final boolean reconcileOnStartup;
+    private static final int BATCH_SIZE = 500;
+    private static final String EXPIRED = " didn't respond to your reservation request in time, so it has been denied!";
+    private static final Logger LOG = Logger.getAnonymousLogger();
+
+    @Autowired
+    public ReservationSweeper(ReservationRepository reservationRepository, PendingRequestDenier pendingRequestDenier, StayTransitioner stayTransitioner,
+                              TaskScheduler taskScheduler,
+                              @Value("${reservation.sweep.on-startup:true}") boolean reconcileOnStartup) {
+        this.reservationRepository = reservationRepository;
+        this.pendingRequestDenier = pendingRequestDenier;
+        this.stayTransitioner = stayTransitioner;
+        this.taskScheduler = taskScheduler;
+        this.reconcileOnStartup = reconcileOnStartup;
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.sweep.interval:PT1M}", initialDelayString = "${reservation.sweep.interval:PT1M}")
+    public void sweep() {
+        SweepResult result = sweep(LocalDate.now(ZoneOffset.UTC));
+        if (result.total() > 0) {
+            LOG.log(Level.INFO, "Reservation sweep " + result);
+        }
+    }
+
+    /**
+     * Catches up on the transitions missed while the application was down. Runs in the
+     * background so startup doesn't wait for it, and touches only the rows that have to change.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (!reconcileOnStartup) {
+            return;
+        }
+        taskScheduler.schedule(() -> {
+            long start = System.currentTimeMillis();
+            SweepResult result = sweep(LocalDate.now(ZoneOffset.UTC));
+            LOG.log(Level.INFO, "Startup reservation reconciliation " + result + " in " + (System.currentTimeMillis() - start) + " ms");
+        }, Instant.now());
+    }
+
+    /**
+     * Denies pending requests whose stay has started, activates approved stays that have
+     * started and finishes active stays that have ended, in that order. Each transition
+     * moves one batch at a time and notifies the affected guests together.
+     */
+    public SweepResult sweep(LocalDate today) {
+        int denied = inBatches(page -> reservationRepository.findExpiredPending(today, page), rows -> pendingRequestDenier.deny(rows, EXPIRED));
+        int activated = inBatches(page -> reservationRepository.findStartedApproved(today, page), stayTransitioner::activate);
+        int finished = inBatches(page -> reservationRepository.findEndedActive(today, page), stayTransitioner::finish);
+        return new SweepResult(denied, activated, finished);
+    }
+
+    /**
+     * Keeps taking the first page, since every moved reservation drops out of the query.
+     */
+    private int inBatches(Function<Pageable, List<Object[]>> find, Function<List<Object[]>, List<Long>> move) {
+        int moved = 0;
+        List<Object[]> rows = find.apply(PageRequest.of(0, BATCH_SIZE));
+        while (!rows.isEmpty()) {
+            moved += move.apply(rows).size();
+            rows = find.apply(PageRequest.of(0, BATCH_SIZE));
+        }
+        return moved;
+    }
+
+    public record SweepResult(int denied, int activated, int finished) {
+        public int total() {
+            return denied + activated + finished;
+        }
+
+        @Override
+        public String toString() {
+            return "denied " + denied + ", activated " + activated + " and finished " + finished + " reservations";
+        }
+    }
+}
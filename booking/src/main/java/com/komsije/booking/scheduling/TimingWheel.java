@@ -0,0 +1,141 @@
+package com.komsije.booking.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel with one second ticks. Every level has 64 slots, and a slot on
+ * level n spans 64^n seconds. A deadline is kept on the lowest level whose current block
+ * it shares with the wheel's time and moves one level down each time that block starts,
+ * so scheduling and firing cost O(1) no matter how far ahead the deadline is.
+ * Deadlines are held as primitive columns inside the slots, not as one object per task.
+ * Not thread safe, callers synchronize.
+ */
+public class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 6;
+    private static final DeadlineKind[] KINDS = DeadlineKind.values();
+
+    private final Slot[][] levels = new Slot[LEVELS][SLOTS];
+    private final Slot overdue = new Slot();
+    private long currentSecond;
+    private int size;
+
+    public TimingWheel(long startEpochSecond) {
+        this.currentSecond = startEpochSecond;
+        for (Slot[] level : levels) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Slot();
+            }
+        }
+    }
+
+    public void schedule(DeadlineKind kind, long entityId, long epochSecond) {
+        place(kind.ordinal(), entityId, epochSecond);
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward to the given second and returns everything that became due,
+     * including deadlines that were already in the past when they were scheduled.
+     */
+    public List<Deadline> advanceTo(long epochSecond) {
+        List<Deadline> due = new ArrayList<>();
+        overdue.drainTo(due);
+        while (currentSecond < epochSecond) {
+            currentSecond++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentSecond & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(levels[level][slotIndex(currentSecond, level)]);
+                }
+            }
+            levels[0][slotIndex(currentSecond, 0)].drainTo(due);
+            overdue.drainTo(due);
+        }
+        size -= due.size();
+        return due;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getCurrentSecond() {
+        return currentSecond;
+    }
+
+    private void place(int kind, long entityId, long epochSecond) {
+        if (epochSecond <= currentSecond) {
+            overdue.add(kind, entityId, epochSecond);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int parentShift = SLOT_BITS * (level + 1);
+            if ((epochSecond >>> parentShift) == (currentSecond >>> parentShift)) {
+                levels[level][slotIndex(epochSecond, level)].add(kind, entityId, epochSecond);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Deadline is too far in the future!");
+    }
+
+    private void cascade(Slot slot) {
+        if (slot.size == 0) {
+            return;
+        }
+        Slot moved = slot.copy();
+        slot.clear();
+        for (int i = 0; i < moved.size; i++) {
+            place(moved.kinds[i], moved.entityIds[i], moved.epochSeconds[i]);
+        }
+    }
+
+    private static int slotIndex(long epochSecond, int level) {
+        return (int) ((epochSecond >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+
+    private static final class Slot {
+        private byte[] kinds = new byte[0];
+        private long[] entityIds = new long[0];
+        private long[] epochSeconds = new long[0];
+        private int size;
+
+        void add(int kind, long entityId, long epochSecond) {
+            if (size == entityIds.length) {
+                int capacity = Math.max(4, size * 2);
+                kinds = Arrays.copyOf(kinds, capacity);
+                entityIds = Arrays.copyOf(entityIds, capacity);
+                epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            }
+            kinds[size] = (byte) kind;
+            entityIds[size] = entityId;
+            epochSeconds[size] = epochSecond;
+            size++;
+        }
+
+        void drainTo(List<Deadline> due) {
+            for (int i = 0; i < size; i++) {
+                due.add(new Deadline(KINDS[kinds[i]], entityIds[i], epochSeconds[i]));
+            }
+            clear();
+        }
+
+        Slot copy() {
+            Slot copy = new Slot();
+            copy.kinds = kinds;
+            copy.entityIds = entityIds;
+            copy.epochSeconds = epochSeconds;
+            copy.size = size;
+            return copy;
+        }
+
+        void clear() {
+            kinds = new byte[0];
+            entityIds = new long[0];
+            epochSeconds = new long[0];
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.TimeSlot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable day-by-day view of the availability of one accommodation, derived from
+ * its time slots. Slots are treated as half-open day ranges [startDate, endDate), the
+ * same way reserveTimeslot splits them.
+ * Free days are kept as a bitmap starting at the first free day, so checking whether
+ * a stay is fully free is a masked scan over a few words. Nightly prices are kept as
+ * prefix sums over the same days, so the price of any stay is the difference of two
+ * array entries.
+ */
+public class AccommodationCalendar {
+    private long firstDay;
+    private int length;
+    private long[] freeDays = new long[0];
+    private double[] pricePrefixSums = new double[1];
+
+    private AccommodationCalendar() {
+    }
+
+    public static AccommodationCalendar of(Collection<TimeSlot> timeSlots) {
+        AccommodationCalendar calendar = new AccommodationCalendar();
+        List<TimeSlot> slots = new ArrayList<>();
+        for (TimeSlot slot : timeSlots) {
+            if (!slot.isOccupied() && slot.getStartDate().isBefore(slot.getEndDate())) {
+                slots.add(slot);
+            }
+        }
+        if (slots.isEmpty()) {
+            return calendar;
+        }
+        slots.sort(Comparator.comparing(TimeSlot::getStartDate));
+
+        calendar.firstDay = slots.get(0).getStartDate().toEpochDay();
+        long lastDay = calendar.firstDay;
+        for (TimeSlot slot : slots) {
+            lastDay = Math.max(lastDay, slot.getEndDate().toEpochDay());
+        }
+        calendar.length = Math.toIntExact(lastDay - calendar.firstDay);
+        calendar.freeDays = new long[(calendar.length + 63) >>> 6];
+        double[] dailyPrices = new double[calendar.length];
+        for (TimeSlot slot : slots) {
+            int from = calendar.toOffset(slot.getStartDate());
+            int to = calendar.toOffset(slot.getEndDate());
+            calendar.setFree(from, to);
+            Arrays.fill(dailyPrices, from, to, slot.getPrice());
+        }
+        calendar.pricePrefixSums = new double[calendar.length + 1];
+        for (int day = 0; day < calendar.length; day++) {
+            calendar.pricePrefixSums[day + 1] = calendar.pricePrefixSums[day] + dailyPrices[day];
+        }
+        return calendar;
+    }
+
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay() - firstDay;
+        long end = endDate.toEpochDay() - firstDay;
+        if (start >= end || start < 0 || end > length) {
+            return false;
+        }
+        int fromWord = (int) (start >>> 6);
+        int toWord = (int) ((end - 1) >>> 6);
+        long firstMask = -1L << start;
+        long lastMask = -1L >>> (63 - ((end - 1) & 63));
+        if (fromWord == toWord) {
+            long mask = firstMask & lastMask;
+            return (freeDays[fromWord] & mask) == mask;
+        }
+        if ((freeDays[fromWord] & firstMask) != firstMask) {
+            return false;
+        }
+        for (int word = fromWord + 1; word < toWord; word++) {
+            if (freeDays[word] != -1L) {
+                return false;
+            }
+        }
+        return (freeDays[toWord] & lastMask) == lastMask;
+    }
+
+    /**
+     * Sums the nightly prices of the free days inside [startDate, endDate).
+     */
+    public double price(LocalDate startDate, LocalDate endDate) {
+        int from = toPriceIndex(startDate);
+        int to = toPriceIndex(endDate);
+        return from < to ? pricePrefixSums[to] - pricePrefixSums[from] : 0;
+    }
+
+    /**
+     * Finds the cheapest fully free stay of the given length starting at most
+     * flexibleDays before or after startDate. Ties go to the start closest to the
+     * requested one. The window slides one day at a time, keeping the number of free
+     * days inside it, so the cost is linear in the searched span.
+     */
+    public Stay cheapestStay(LocalDate startDate, int nights, int flexibleDays) {
+        long requested = startDate.toEpochDay() - firstDay;
+        long from = Math.max(requested - flexibleDays, 0);
+        long to = Math.min(requested + flexibleDays, (long) length - nights);
+        if (nights <= 0 || from > to) {
+            return null;
+        }
+        int freeInWindow = 0;
+        for (int day = (int) from; day < from + nights; day++) {
+            freeInWindow += isFree(day) ? 1 : 0;
+        }
+        int bestStart = -1;
+        double bestPrice = 0;
+        for (int start = (int) from; start <= to; start++) {
+            if (start > from) {
+                freeInWindow += (isFree(start + nights - 1) ? 1 : 0) - (isFree(start - 1) ? 1 : 0);
+            }
+            if (freeInWindow != nights) {
+                continue;
+            }
+            double price = pricePrefixSums[start + nights] - pricePrefixSums[start];
+            if (bestStart < 0 || price < bestPrice || (price == bestPrice && Math.abs(start - requested) < Math.abs(bestStart - requested))) {
+                bestStart = start;
+                bestPrice = price;
+            }
+        }
+        if (bestStart < 0) {
+            return null;
+        }
+        LocalDate stayStart = LocalDate.ofEpochDay(firstDay + bestStart);
+        return new Stay(stayStart, stayStart.plusDays(nights), bestPrice);
+    }
+
+    private boolean isFree(int day) {
+        return (freeDays[day >>> 6] & (1L << day)) != 0;
+    }
+
+    private void setFree(int from, int to) {
+        for (int day = from; day < to; day++) {
+            freeDays[day >>> 6] |= 1L << day;
+        }
+    }
+
+    private int toOffset(LocalDate date) {
+        return (int) (date.toEpochDay() - firstDay);
+    }
+
+    private int toPriceIndex(LocalDate date) {
+        long offset = date.toEpochDay() - firstDay;
+        return (int) Math.max(0, Math.min(offset, length));
+    }
+}
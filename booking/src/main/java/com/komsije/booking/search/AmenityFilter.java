@@ -0,0 +1,28 @@
+package com.komsije.booking.search;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Amenity conditions of a query: an accommodation has to offer every amenity in
+ * {@code all}, at least one in {@code any} (when given) and none in {@code none}.
+ */
+public record AmenityFilter(Set<String> all, Set<String> any, Set<String> none) {
+    public static final AmenityFilter NONE = new AmenityFilter(Set.of(), Set.of(), Set.of());
+
+    public static AmenityFilter of(Collection<String> all, Collection<String> any, Collection<String> none) {
+        return new AmenityFilter(normalize(all), normalize(any), normalize(none));
+    }
+
+    public boolean isEmpty() {
+        return all.isEmpty() && any.isEmpty() && none.isEmpty();
+    }
+
+    private static Set<String> normalize(Collection<String> amenities) {
+        if (amenities == null) {
+            return Set.of();
+        }
+        return amenities.stream().filter(amenity -> amenity != null && !amenity.isBlank()).map(String::trim).collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,197 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.repository.AccommodationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory amenity bitsets. Every distinct amenity gets a bit in a shared dictionary
+ * and every accommodation keeps the bits of its amenities, so a filter is a few word
+ * wide AND/OR operations instead of a join over the amenities collection.
+ * The index is loaded on first use and kept in sync by the accommodation service.
+ */
+@Component
+public class AmenityIndex {
+    private final Map<String, Integer> dictionary = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> amenities = new ConcurrentHashMap<>();
+    private final AtomicInteger nextBit = new AtomicInteger();
+    private final AccommodationRepository accommodationRepository;
+    private volatile boolean loaded;
+
+    @Autowired
+    public AmenityIndex(AccommodationRepository accommodationRepository) {
+        this.accommodationRepository = accommodationRepository;
+    }
+
+    public boolean matches(Long accommodationId, AmenityFilter filter) {
+        if (filter.isEmpty()) {
+            return true;
+        }
+        load();
+        return matches(amenities.getOrDefault(accommodationId, new long[0]), compile(filter));
+    }
+
+    /**
+     * Returns the ids of all accommodations matching the filter, in ascending order.
+     */
+    public List<Long> findMatching(AmenityFilter filter) {
+        load();
+        CompiledFilter compiled = compile(filter);
+        List<Long> ids = new ArrayList<>();
+        amenities.forEach((id, bits) -> {
+            if (matches(bits, compiled)) {
+                ids.add(id);
+            }
+        });
+        ids.sort(Long::compare);
+        return ids;
+    }
+
+    /**
+     * Counts how many of the given accommodations offer each amenity.
+     */
+    public Map<String, Integer> countAmenities(Collection<Long> accommodationIds) {
+        load();
+        int[] counts = new int[nextBit.get()];
+        for (Long id : accommodationIds) {
+            long[] bits = amenities.get(id);
+            if (bits == null) {
+                continue;
+            }
+            for (int word = 0; word < bits.length; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    int bit = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                    if (bit < counts.length) {
+                        counts[bit]++;
+                    }
+                    remaining &= remaining - 1;
+                }
+            }
+        }
+        Map<String, Integer> result = new HashMap<>();
+        dictionary.forEach((name, bit) -> {
+            if (bit < counts.length && counts[bit] > 0) {
+                result.put(name, counts[bit]);
+            }
+        });
+        return result;
+    }
+
+    public void refresh(Accommodation accommodation) {
+        if (accommodation.getId() == null || !loaded) {
+            return;
+        }
+        amenities.put(accommodation.getId(), toBits(accommodation.getAmenities()));
+    }
+
+    public void evict(Long accommodationId) {
+        amenities.remove(accommodationId);
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            Map<Long, Set<String>> amenitiesByAccommodation = new HashMap<>();
+            for (Object[] row : accommodationRepository.findAmenities()) {
+                Set<String> accommodationAmenities = amenitiesByAccommodation.computeIfAbsent((Long) row[0], id -> new HashSet<>());
+                if (row[1] != null) {
+                    accommodationAmenities.add((String) row[1]);
+                }
+            }
+            amenitiesByAccommodation.forEach((id, names) -> amenities.put(id, toBits(names)));
+            loaded = true;
+        }
+    }
+
+    private long[] toBits(Collection<String> names) {
+        long[] bits = new long[0];
+        for (String name : names) {
+            int bit = dictionary.computeIfAbsent(name.trim(), key -> nextBit.getAndIncrement());
+            bits = set(bits, bit);
+        }
+        return bits;
+    }
+
+    private CompiledFilter compile(AmenityFilter filter) {
+        long[] all = new long[0];
+        for (String name : filter.all()) {
+            Integer bit = dictionary.get(name);
+            if (bit == null) {
+                return CompiledFilter.NOTHING;
+            }
+            all = set(all, bit);
+        }
+        long[] any = new long[0];
+        for (String name : filter.any()) {
+            Integer bit = dictionary.get(name);
+            if (bit != null) {
+                any = set(any, bit);
+            }
+        }
+        if (!filter.any().isEmpty() && any.length == 0) {
+            return CompiledFilter.NOTHING;
+        }
+        long[] none = new long[0];
+        for (String name : filter.none()) {
+            Integer bit = dictionary.get(name);
+            if (bit != null) {
+                none = set(none, bit);
+            }
+        }
+        return new CompiledFilter(all, any, none, false);
+    }
+
+    private static boolean matches(long[] bits, CompiledFilter filter) {
+        if (filter.matchesNothing()) {
+            return false;
+        }
+        boolean anyMatched = filter.any().length == 0;
+        for (int word = 0; word < bits.length; word++) {
+            if (word < filter.none().length && (bits[word] & filter.none()[word]) != 0) {
+                return false;
+            }
+            if (word < filter.any().length && (bits[word] & filter.any()[word]) != 0) {
+                anyMatched = true;
+            }
+        }
+        for (int word = 0; word < filter.all().length; word++) {
+            long value = word < bits.length ? bits[word] : 0;
+            if ((value & filter.all()[word]) != filter.all()[word]) {
+                return false;
+            }
+        }
+        return anyMatched;
+    }
+
+    private static long[] set(long[] bits, int bit) {
+        int word = bit >>> 6;
+        if (word >= bits.length) {
+            long[] grown = new long[word + 1];
+            System.arraycopy(bits, 0, grown, 0, bits.length);
+            bits = grown;
+        }
+        bits[word] |= 1L << bit;
+        return bits;
+    }
+
+    private record CompiledFilter(long[] all, long[] any, long[] none, boolean matchesNothing) {
+        static final CompiledFilter NOTHING = new CompiledFilter(new long[0], new long[0], new long[0], true);
+    }
+}
@@ -0,0 +1,114 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.TimeSlot;
+import com.komsije.booking.repository.AccommodationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of free time slots per accommodation, used by search and price
+ * quotes instead of walking the lazy availability collection.
+ * Entries are replaced whenever the service changes an accommodation's availability.
+ * Each entry remembers the accommodation version it was built from, so a load that
+ * read the slots before a change can't replace the calendar written after it. Entries
+ * expire after a short time, which is how changes made on other nodes show up here.
+ */
+@Component
+public class AvailabilityIndex {
+    private static final long TIME_TO_LIVE_MILLIS = 60_000;
+    private static final long UNKNOWN_VERSION = -1;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AccommodationRepository accommodationRepository;
+
+    private record Entry(long version, AccommodationCalendar calendar, long expiresAt) {
+        private boolean isLive() {
+            return expiresAt > System.currentTimeMillis();
+        }
+    }
+
+    @Autowired
+    public AvailabilityIndex(AccommodationRepository accommodationRepository) {
+        this.accommodationRepository = accommodationRepository;
+    }
+
+    /**
+     * Loads the calendars of all given accommodations that are not indexed yet with a single query.
+     */
+    public void preload(Collection<Long> accommodationIds) {
+        List<Long> missing = new ArrayList<>();
+        for (Long id : accommodationIds) {
+            Entry entry = entries.get(id);
+            if (entry == null || !entry.isLive()) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            load(missing);
+        }
+    }
+
+    public boolean isAvailable(Long accommodationId, LocalDate startDate, LocalDate endDate) {
+        return getCalendar(accommodationId).covers(startDate, endDate);
+    }
+
+    public double getPrice(Long accommodationId, LocalDate startDate, LocalDate endDate) {
+        return getCalendar(accommodationId).price(startDate, endDate);
+    }
+
+    public Stay getCheapestStay(Long accommodationId, LocalDate startDate, int nights, int flexibleDays) {
+        return getCalendar(accommodationId).cheapestStay(startDate, nights, flexibleDays);
+    }
+
+    public void refresh(Accommodation accommodation) {
+        if (accommodation.getId() == null) {
+            return;
+        }
+        store(accommodation.getId(), accommodation.getVersion(), AccommodationCalendar.of(accommodation.getAvailability()));
+    }
+
+    public void evict(Long accommodationId) {
+        entries.remove(accommodationId);
+    }
+
+    private AccommodationCalendar getCalendar(Long accommodationId) {
+        Entry entry = entries.get(accommodationId);
+        if (entry == null || !entry.isLive()) {
+            return load(List.of(accommodationId)).get(accommodationId);
+        }
+        return entry.calendar();
+    }
+
+    private Map<Long, AccommodationCalendar> load(Collection<Long> accommodationIds) {
+        Map<Long, List<TimeSlot>> slotsByAccommodation = new HashMap<>();
+        Map<Long, Long> versions = new HashMap<>();
+        for (Long id : accommodationIds) {
+            slotsByAccommodation.put(id, new ArrayList<>());
+            versions.put(id, UNKNOWN_VERSION);
+        }
+        // the version is read by the same statement as the slots, so it describes exactly them
+        for (Object[] row : accommodationRepository.findFreeSlots(accommodationIds)) {
+            versions.put((Long) row[0], (Long) row[1]);
+            if (row[2] != null) {
+                slotsByAccommodation.get((Long) row[0]).add((TimeSlot) row[2]);
+            }
+        }
+        Map<Long, AccommodationCalendar> calendars = new HashMap<>();
+        slotsByAccommodation.forEach((id, slots) -> calendars.put(id, store(id, versions.get(id), AccommodationCalendar.of(slots))));
+        return calendars;
+    }
+
+    private AccommodationCalendar store(Long accommodationId, long version, AccommodationCalendar calendar) {
+        Entry candidate = new Entry(version, calendar, System.currentTimeMillis() + TIME_TO_LIVE_MILLIS);
+        return entries.merge(accommodationId, candidate, (current, loaded) -> loaded.version() >= current.version() ? loaded : current).calendar();
+    }
+}
@@ -0,0 +1,156 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.AccommodationStatus;
+import com.komsije.booking.repository.AccommodationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform latitude/longitude grid over the addresses of active accommodations.
+ * A bounding box query only visits the cells it overlaps, and a radius query is a
+ * bounding box query followed by an exact distance check.
+ * The grid is loaded on first use and kept in sync by the accommodation service.
+ */
+@Component
+public class GeoGridIndex {
+    private static final double CELL_SIZE_DEGREES = 0.1;
+    private static final int CELLS_PER_ROW = (int) Math.ceil(360 / CELL_SIZE_DEGREES);
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, GeoPoint> points = new ConcurrentHashMap<>();
+    private final AccommodationRepository accommodationRepository;
+    private volatile boolean loaded;
+
+    private record GeoPoint(double latitude, double longitude) {
+    }
+
+    @Autowired
+    public GeoGridIndex(AccommodationRepository accommodationRepository) {
+        this.accommodationRepository = accommodationRepository;
+    }
+
+    /**
+     * Returns the ids of active accommodations inside the box. Boxes crossing the
+     * antimeridian are not supported, minLongitude has to be the western edge.
+     */
+    public List<Long> findInBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        load();
+        List<Long> ids = new ArrayList<>();
+        int minRow = row(Math.max(minLatitude, -90));
+        int maxRow = row(Math.min(maxLatitude, 90));
+        int minColumn = column(Math.max(minLongitude, -180));
+        int maxColumn = column(Math.min(maxLongitude, 180));
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) > points.size()) {
+            // zoomed out views cover more cells than there are accommodations
+            points.forEach((id, point) -> {
+                if (point.latitude() >= minLatitude && point.latitude() <= maxLatitude
+                        && point.longitude() >= minLongitude && point.longitude() <= maxLongitude) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Set<Long> cell = cells.get(cellKey(row, column));
+                if (cell == null) {
+                    continue;
+                }
+                for (Long id : cell) {
+                    GeoPoint point = points.get(id);
+                    if (point != null && point.latitude() >= minLatitude && point.latitude() <= maxLatitude
+                            && point.longitude() >= minLongitude && point.longitude() <= maxLongitude) {
+                        ids.add(id);
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    public List<Long> findInRadius(double latitude, double longitude, double radiusKm) {
+        double latitudeDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        double longitudeDelta = cosLatitude < 1e-6 ? 180 : Math.min(180, latitudeDelta / cosLatitude);
+        List<Long> ids = new ArrayList<>();
+        for (Long id : findInBox(latitude - latitudeDelta, longitude - longitudeDelta, latitude + latitudeDelta, longitude + longitudeDelta)) {
+            GeoPoint point = points.get(id);
+            if (point != null && distanceKm(latitude, longitude, point.latitude(), point.longitude()) <= radiusKm) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    public void refresh(Accommodation accommodation) {
+        if (accommodation.getId() == null || !loaded) {
+            return;
+        }
+        evict(accommodation.getId());
+        if (accommodation.getStatus() == AccommodationStatus.Active && accommodation.getAddress() != null) {
+            add(accommodation.getId(), accommodation.getAddress().getLatitude(), accommodation.getAddress().getLongitude());
+        }
+    }
+
+    public void evict(Long accommodationId) {
+        GeoPoint point = points.remove(accommodationId);
+        if (point != null) {
+            Set<Long> cell = cells.get(cellKey(row(point.latitude()), column(point.longitude())));
+            if (cell != null) {
+                cell.remove(accommodationId);
+            }
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            for (Object[] row : accommodationRepository.findActiveLocations()) {
+                add((Long) row[0], (Double) row[1], (Double) row[2]);
+            }
+            loaded = true;
+        }
+    }
+
+    private void add(Long id, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return;
+        }
+        points.put(id, new GeoPoint(latitude, longitude));
+        cells.computeIfAbsent(cellKey(row(latitude), column(longitude)), key -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_SIZE_DEGREES);
+    }
+
+    private static int column(double longitude) {
+        return (int) Math.floor((longitude + 180) / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(int row, int column) {
+        return (long) row * CELLS_PER_ROW + column;
+    }
+
+    private static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeDistance = Math.toRadians(latitude2 - latitude1);
+        double longitudeDistance = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(latitudeDistance / 2) * Math.sin(latitudeDistance / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(longitudeDistance / 2) * Math.sin(longitudeDistance / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.AccommodationListing;
+import com.komsije.booking.model.ReviewStatus;
+import com.komsije.booking.repository.AccommodationListingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the AccommodationListing read model in step with accommodations. The service
+ * calls it inside the transaction that changes an accommodation. On startup the table is
+ * rebuilt only when it is empty or was written by an older version of the projection;
+ * bump PROJECTION_VERSION whenever toListing changes what it stores.
+ */
+@Component
+public class ListingProjector {
+    private static final Logger LOG = Logger.getAnonymousLogger();
+    private static final String SEPARATOR = "\n";
+    static final int PROJECTION_VERSION = 2;
+
+    private final AccommodationListingRepository listingRepository;
+
+    @Autowired
+    public ListingProjector(AccommodationListingRepository listingRepository) {
+        this.listingRepository = listingRepository;
+    }
+
+    public void project(Accommodation accommodation) {
+        if (accommodation == null || accommodation.getId() == null) {
+            return;
+        }
+        listingRepository.save(toListing(accommodation));
+    }
+
+    public void remove(Long accommodationId) {
+        listingRepository.deleteById(accommodationId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        if (listingRepository.count() > 0 && !listingRepository.existsByProjectionVersionNot(PROJECTION_VERSION)) {
+            LOG.log(Level.INFO, "Accommodation listings are up to date");
+            return;
+        }
+        List<AccommodationListing> listings = new ArrayList<>();
+        for (Accommodation accommodation : listingRepository.findAccommodationsToProject()) {
+            listings.add(toListing(accommodation));
+        }
+        listingRepository.deleteAllInBatch();
+        listingRepository.saveAll(listings);
+        LOG.log(Level.INFO, "Projected " + listings.size() + " accommodation listings");
+    }
+
+    public static Set<String> getAmenities(AccommodationListing listing) {
+        return split(listing.getAmenities());
+    }
+
+    public static Set<String> getPhotos(AccommodationListing listing) {
+        return split(listing.getPhotos());
+    }
+
+    private static Set<String> split(String joined) {
+        if (joined == null || joined.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(Arrays.asList(joined.split(SEPARATOR)));
+    }
+
+    private static String join(Set<String> values) {
+        return values == null ? "" : String.join(SEPARATOR, values.stream().sorted().toList());
+    }
+
+    private static AccommodationListing toListing(Accommodation accommodation) {
+        AccommodationListing listing = new AccommodationListing();
+        listing.setId(accommodation.getId());
+        listing.setProjectionVersion(PROJECTION_VERSION);
+        listing.setName(accommodation.getName());
+        listing.setDescription(accommodation.getDescription());
+        listing.setStatus(accommodation.getStatus());
+        listing.setAccommodationType(accommodation.getAccommodationType());
+        if (accommodation.getAddress() != null) {
+            listing.setAddressId(accommodation.getAddress().getId());
+            listing.setStreet(accommodation.getAddress().getStreet());
+            listing.setNumber(accommodation.getAddress().getNumber());
+            listing.setCity(accommodation.getAddress().getCity());
+            listing.setCityKey(accommodation.getAddress().getCity() == null ? null : accommodation.getAddress().getCity().trim().toLowerCase());
+            listing.setCountry(accommodation.getAddress().getCountry());
+            listing.setLatitude(accommodation.getAddress().getLatitude());
+            listing.setLongitude(accommodation.getAddress().getLongitude());
+        }
+        listing.setMinGuests(accommodation.getMinGuests());
+        listing.setMaxGuests(accommodation.getMaxGuests());
+        listing.setPricePerGuest(accommodation.isPricePerGuest());
+        listing.setCancellationDeadline(accommodation.getCancellationDeadline());
+        listing.setAverageGrade(accommodation.getAverageGrade());
+        listing.setReviewCount(accommodation.getReviews() == null ? 0 : (int) accommodation.getReviews().stream().filter(review -> review.getStatus() != ReviewStatus.Pending).count());
+        listing.setAmenities(join(accommodation.getAmenities()));
+        listing.setPhotos(join(accommodation.getPhotos()));
+        return listing;
+    }
+}
@@ -0,0 +1,188 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.LocationSuggestionDto;
+import com.komsije.booking.dto.LocationType;
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.AccommodationStatus;
+import com.komsije.booking.repository.AccommodationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix trie over the cities and countries of active accommodations, used for
+ * location autocomplete. Names are matched case and diacritic insensitive, so
+ * "novi s" and "zur" find "Novi Sad" and "Zürich". Suggestions are ordered by the
+ * number of listings in the location.
+ * The trie is loaded on first use and kept in sync by the accommodation service.
+ */
+@Component
+public class LocationTrie {
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Entry> BY_LISTINGS = Comparator.comparingInt((Entry entry) -> entry.listings).thenComparing(entry -> entry.name, Comparator.reverseOrder());
+
+    private final Node root = new Node();
+    private final Map<Long, Location> locations = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AccommodationRepository accommodationRepository;
+    private volatile boolean loaded;
+
+    private record Location(String city, String country) {
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final Map<String, Entry> entries = new HashMap<>();
+    }
+
+    private static class Entry {
+        private final String name;
+        private final String country;
+        private final LocationType type;
+        private int listings;
+
+        private Entry(String name, String country, LocationType type) {
+            this.name = name;
+            this.country = country;
+            this.type = type;
+        }
+    }
+
+    @Autowired
+    public LocationTrie(AccommodationRepository accommodationRepository) {
+        this.accommodationRepository = accommodationRepository;
+    }
+
+    public List<LocationSuggestionDto> suggest(String prefix) {
+        String normalized = prefix == null ? "" : normalize(prefix);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        load();
+        PriorityQueue<Entry> best = new PriorityQueue<>(BY_LISTINGS);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < normalized.length() && node != null; i++) {
+                node = node.children.get(normalized.charAt(i));
+            }
+            if (node == null) {
+                return new ArrayList<>();
+            }
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(node);
+            while (!stack.isEmpty()) {
+                Node current = stack.pop();
+                for (Entry entry : current.entries.values()) {
+                    best.add(entry);
+                    if (best.size() > MAX_SUGGESTIONS) {
+                        best.poll();
+                    }
+                }
+                current.children.values().forEach(stack::push);
+            }
+            List<LocationSuggestionDto> suggestions = new ArrayList<>();
+            while (!best.isEmpty()) {
+                Entry entry = best.poll();
+                suggestions.add(0, new LocationSuggestionDto(entry.name, entry.country, entry.type, entry.listings));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void refresh(Accommodation accommodation) {
+        if (accommodation.getId() == null || !loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(accommodation.getId());
+            if (accommodation.getStatus() == AccommodationStatus.Active && accommodation.getAddress() != null) {
+                add(accommodation.getId(), accommodation.getAddress().getCity(), accommodation.getAddress().getCountry());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void evict(Long accommodationId) {
+        lock.writeLock().lock();
+        try {
+            remove(accommodationId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            for (Object[] row : accommodationRepository.findActiveCities()) {
+                add((Long) row[0], (String) row[1], (String) row[2]);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Long accommodationId, String city, String country) {
+        if (city == null || country == null) {
+            return;
+        }
+        Location location = new Location(city.trim(), country.trim());
+        locations.put(accommodationId, location);
+        change(location.city(), location.country(), LocationType.City, 1);
+        change(location.country(), null, LocationType.Country, 1);
+    }
+
+    private void remove(Long accommodationId) {
+        Location location = locations.remove(accommodationId);
+        if (location != null) {
+            change(location.city(), location.country(), LocationType.City, -1);
+            change(location.country(), null, LocationType.Country, -1);
+        }
+    }
+
+    private void change(String name, String country, LocationType type, int delta) {
+        String normalized = normalize(name);
+        Node node = root;
+        for (int i = 0; i < normalized.length(); i++) {
+            node = node.children.computeIfAbsent(normalized.charAt(i), key -> new Node());
+        }
+        String key = country == null ? normalized : normalized + "|" + normalize(country);
+        Entry entry = node.entries.computeIfAbsent(key, k -> new Entry(name, country, type));
+        entry.listings += delta;
+        if (entry.listings <= 0) {
+            node.entries.remove(key);
+        }
+    }
+
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd').replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+    }
+}
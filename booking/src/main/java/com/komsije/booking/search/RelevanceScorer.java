@@ -0,0 +1,11 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.SearchResponseDto;
+
+/**
+ * Scores a search result for ranking, higher is better. Scores only need to be
+ * comparable with each other within one search.
+ */
+public interface RelevanceScorer {
+    double score(SearchResponseDto result);
+}
@@ -0,0 +1,17 @@
+package com.komsije.booking.search;
+
+public final class Rounding {
+    private Rounding() {
+    }
+
+    /**
+     * Rounds half up to two decimals without going through a formatter. Values that are
+     * not finite are returned as is.
+     */
+    public static double twoDecimals(double value) {
+        if (!Double.isFinite(value)) {
+            return value;
+        }
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.SearchSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last returned search result: the value of the sort key and the id
+ * used as a tie breaker. Clients only see the encoded, opaque form. The key is always
+ * the plain value of the sorted field, whatever direction it is paged in, so a cursor
+ * means the same on the database and the in-memory paging paths.
+ */
+public record SearchCursor(SearchSort sort, double key, long id) {
+
+    public String encode() {
+        String raw = sort.name() + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor, SearchSort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException("Search cursor is not valid!");
+            }
+            return new SearchCursor(sort, Double.parseDouble(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Search cursor is not valid!");
+        }
+    }
+}
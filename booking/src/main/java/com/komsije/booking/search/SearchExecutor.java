@@ -0,0 +1,60 @@
+package com.komsije.booking.search;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Dedicated pool for the CPU bound part of a search, so large result sets don't
+ * run on the request thread alone and don't compete with the common pool.
+ * Small inputs are evaluated sequentially, where forking would cost more than it saves.
+ */
+@Component
+public class SearchExecutor {
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final int MAX_PARALLELISM = 8;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARALLELISM));
+
+    /**
+     * Evaluates the function for every index in [0, size). Results keep the order of the indices.
+     */
+    public double[] evaluate(int size, IntToDoubleFunction function) {
+        double[] results = new double[size];
+        if (size < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < size; i++) {
+                results[i] = function.applyAsDouble(i);
+            }
+            return results;
+        }
+        pool.submit(() -> IntStream.range(0, size).parallel().forEach(i -> results[i] = function.applyAsDouble(i))).join();
+        return results;
+    }
+
+    /**
+     * Maps every index in [0, size) to a value. Results keep the order of the indices.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> map(int size, IntFunction<T> function) {
+        Object[] results = new Object[size];
+        if (size < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < size; i++) {
+                results[i] = function.apply(i);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, size).parallel().forEach(i -> results[i] = function.apply(i))).join();
+        }
+        return (List<T>) Arrays.asList(results);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,48 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.PriceBucketDto;
+import com.komsije.booking.dto.SearchFacetsDto;
+import com.komsije.booking.dto.SearchResponseDto;
+import com.komsije.booking.model.AccommodationType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts search results per accommodation type, amenity and nightly price range
+ * in one pass over the results, using plain int counters.
+ */
+public class SearchFacetCollector {
+    private static final double[] PRICE_BUCKET_BOUNDS = {50, 100, 200, 500};
+    private static final AccommodationType[] TYPES = AccommodationType.values();
+
+    private final int[] typeCounts = new int[TYPES.length];
+    private final int[] priceCounts = new int[PRICE_BUCKET_BOUNDS.length + 1];
+    private final List<Long> ids = new ArrayList<>();
+
+    public void add(SearchResponseDto result) {
+        if (result.getAccommodationType() != null) {
+            typeCounts[result.getAccommodationType().ordinal()]++;
+        }
+        int bucket = 0;
+        while (bucket < PRICE_BUCKET_BOUNDS.length && result.getPricePerNight() >= PRICE_BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        priceCounts[bucket]++;
+        ids.add(result.getId());
+    }
+
+    public SearchFacetsDto toDto(AmenityIndex amenityIndex) {
+        SearchFacetsDto facets = new SearchFacetsDto();
+        for (AccommodationType type : TYPES) {
+            facets.getAccommodationTypes().put(type, typeCounts[type.ordinal()]);
+        }
+        for (int bucket = 0; bucket < priceCounts.length; bucket++) {
+            double from = bucket == 0 ? 0 : PRICE_BUCKET_BOUNDS[bucket - 1];
+            Double to = bucket < PRICE_BUCKET_BOUNDS.length ? PRICE_BUCKET_BOUNDS[bucket] : null;
+            facets.getPricesPerNight().add(new PriceBucketDto(from, to, priceCounts[bucket]));
+        }
+        facets.setAmenities(amenityIndex.countAmenities(ids));
+        return facets;
+    }
+}
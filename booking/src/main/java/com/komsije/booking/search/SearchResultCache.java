@@ -0,0 +1,159 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.SearchCacheStatsDto;
+import com.komsije.booking.dto.SearchFacetsDto;
+import com.komsije.booking.dto.SearchResponseDto;
+import com.komsije.booking.dto.SearchSort;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search results keyed by city, dates, number of guests and amenity filter.
+ * Entries expire after a short time and are dropped as soon as an accommodation
+ * in their city changes. A search that was running while its city got invalidated
+ * is not stored, so stale results can't outlive the invalidation. Facets and sorted
+ * orders are computed from an entry's own results the first time they are asked for
+ * and kept with them.
+ */
+@Component
+public class SearchResultCache {
+    private static final int MAX_ENTRIES = 1000;
+    private static final long TIME_TO_LIVE_MILLIS = 60_000;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> cityVersions = new HashMap<>();
+    private long version;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public record Key(String city, LocalDate startDate, LocalDate endDate, int guests, AmenityFilter amenities, int flexibleDays) {
+        public static Key of(String place, LocalDate startDate, LocalDate endDate, int guests, AmenityFilter amenities, int flexibleDays) {
+            return new Key(normalize(place), startDate, endDate, guests, amenities, flexibleDays);
+        }
+    }
+
+    private static final class Entry {
+        private final List<SearchResponseDto> results;
+        private final long expiresAt;
+        private SearchFacetsDto facets;
+        private final Map<SearchSort, List<SearchResponseDto>> sorted = new EnumMap<>(SearchSort.class);
+
+        private Entry(List<SearchResponseDto> results, long expiresAt) {
+            this.results = results;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public List<SearchResponseDto> get(Key key, Supplier<List<SearchResponseDto>> search) {
+        long cityVersion;
+        long cacheVersion;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return new ArrayList<>(entry.results);
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            cityVersion = cityVersions.getOrDefault(key.city(), 0L);
+            cacheVersion = version;
+        }
+        List<SearchResponseDto> results = search.get();
+        synchronized (this) {
+            if (cityVersions.getOrDefault(key.city(), 0L) == cityVersion && version == cacheVersion) {
+                entries.put(key, new Entry(List.copyOf(results), System.currentTimeMillis() + TIME_TO_LIVE_MILLIS));
+                if (entries.size() > MAX_ENTRIES) {
+                    Iterator<Key> eldest = entries.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the facets of the cached results for the key, running the search first
+     * when nothing is cached. The search is expected to store its results here.
+     */
+    public SearchFacetsDto getFacets(Key key, Supplier<List<SearchResponseDto>> search, Function<List<SearchResponseDto>, SearchFacetsDto> collect) {
+        return derive(key, search, entry -> {
+            if (entry.facets == null) {
+                entry.facets = collect.apply(entry.results);
+            }
+            return entry.facets;
+        }, collect);
+    }
+
+    /**
+     * Returns the cached results for the key in the given order, sorting them once per
+     * entry so that later pages of the same search only look up their window.
+     */
+    public List<SearchResponseDto> getSorted(Key key, SearchSort sort, Supplier<List<SearchResponseDto>> search, Function<List<SearchResponseDto>, List<SearchResponseDto>> sorter) {
+        return derive(key, search, entry -> entry.sorted.computeIfAbsent(sort, ignored -> List.copyOf(sorter.apply(entry.results))), sorter);
+    }
+
+    private <T> T derive(Key key, Supplier<List<SearchResponseDto>> search, Function<Entry, T> fromEntry, Function<List<SearchResponseDto>, T> fromResults) {
+        Entry entry = getLiveEntry(key);
+        if (entry == null) {
+            List<SearchResponseDto> results = search.get();
+            entry = getLiveEntry(key);
+            if (entry == null) {
+                return fromResults.apply(results);
+            }
+        }
+        synchronized (entry) {
+            return fromEntry.apply(entry);
+        }
+    }
+
+    private synchronized Entry getLiveEntry(Key key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.expiresAt > System.currentTimeMillis() ? entry : null;
+    }
+
+    public synchronized void evictCity(String city) {
+        if (city == null) {
+            return;
+        }
+        String normalized = normalize(city);
+        cityVersions.merge(normalized, 1L, Long::sum);
+        Iterator<Key> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().city().equals(normalized)) {
+                keys.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        version++;
+        evictions.addAndGet(entries.size());
+        entries.clear();
+    }
+
+    public synchronized SearchCacheStatsDto getStats() {
+        return new SearchCacheStatsDto(hits.get(), misses.get(), evictions.get(), entries.size());
+    }
+
+    private static String normalize(String place) {
+        return place.trim().toLowerCase();
+    }
+}
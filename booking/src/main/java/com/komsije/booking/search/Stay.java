@@ -0,0 +1,9 @@
+package com.komsije.booking.search;
+
+import java.time.LocalDate;
+
+/**
+ * A concrete stay picked by a flexible date search, with its nightly price sum.
+ */
+public record Stay(LocalDate startDate, LocalDate endDate, double price) {
+}
@@ -0,0 +1,116 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.TimeSlot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Mutable view over an accommodation's availability collection, keyed by the start
+ * epoch day of each slot. Slots are half-open day ranges [startDate, endDate).
+ * Reserving and releasing find the affected slots with a map lookup and change the
+ * underlying collection only by the rows that actually differ: a slot that is split
+ * keeps its row for one of the parts and only the remaining parts are added.
+ */
+public class TimeSlotCalendar {
+    private final List<TimeSlot> slots;
+    private final NavigableMap<Long, TimeSlot> slotsByStart = new TreeMap<>();
+
+    public TimeSlotCalendar(List<TimeSlot> slots) {
+        this.slots = slots;
+        for (TimeSlot slot : slots) {
+            if (slot.getStartDate().isBefore(slot.getEndDate())) {
+                slotsByStart.put(slot.getStartDate().toEpochDay(), slot);
+            }
+        }
+    }
+
+    /**
+     * Marks the free days of [startDate, endDate) as occupied. Occupied slots are never
+     * merged with each other, so a reservation can later be released by its dates.
+     */
+    public void reserve(LocalDate startDate, LocalDate endDate) {
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        Long firstKey = slotsByStart.floorKey(from);
+        if (firstKey == null) {
+            firstKey = from;
+        }
+        for (TimeSlot slot : new ArrayList<>(slotsByStart.subMap(firstKey, true, to, false).values())) {
+            long slotStart = slot.getStartDate().toEpochDay();
+            long slotEnd = slot.getEndDate().toEpochDay();
+            if (slot.isOccupied() || slotEnd <= from) {
+                continue;
+            }
+            long reservedStart = Math.max(slotStart, from);
+            long reservedEnd = Math.min(slotEnd, to);
+            move(slot, reservedStart, reservedEnd);
+            slot.setOccupied(true);
+            if (slotStart < reservedStart) {
+                add(new TimeSlot(null, LocalDate.ofEpochDay(slotStart), LocalDate.ofEpochDay(reservedStart), slot.getPrice(), false));
+            }
+            if (reservedEnd < slotEnd) {
+                add(new TimeSlot(null, LocalDate.ofEpochDay(reservedEnd), LocalDate.ofEpochDay(slotEnd), slot.getPrice(), false));
+            }
+        }
+    }
+
+    /**
+     * Frees the occupied slots lying within [startDate, endDate) and merges each of them
+     * with free neighbours of the same price.
+     */
+    public void release(LocalDate startDate, LocalDate endDate) {
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        for (TimeSlot slot : new ArrayList<>(slotsByStart.subMap(from, true, to, false).values())) {
+            if (slot.isOccupied() && slot.getEndDate().toEpochDay() <= to) {
+                slot.setOccupied(false);
+                coalesce(slot);
+            }
+        }
+    }
+
+    private void coalesce(TimeSlot slot) {
+        Map.Entry<Long, TimeSlot> previous = slotsByStart.lowerEntry(slot.getStartDate().toEpochDay());
+        if (previous != null && canMerge(previous.getValue(), slot)) {
+            TimeSlot merged = previous.getValue();
+            remove(slot);
+            merged.setEndDate(slot.getEndDate());
+            slot = merged;
+        }
+        TimeSlot next = slotsByStart.get(slot.getEndDate().toEpochDay());
+        if (next != null && canMerge(slot, next)) {
+            remove(next);
+            slot.setEndDate(next.getEndDate());
+        }
+    }
+
+    private boolean canMerge(TimeSlot first, TimeSlot second) {
+        return !first.isOccupied() && !second.isOccupied()
+                && first.getEndDate().isEqual(second.getStartDate())
+                && first.getPrice() == second.getPrice();
+    }
+
+    private void move(TimeSlot slot, long startDay, long endDay) {
+        if (slot.getStartDate().toEpochDay() != startDay) {
+            slotsByStart.remove(slot.getStartDate().toEpochDay());
+            slot.setStartDate(LocalDate.ofEpochDay(startDay));
+        }
+        slot.setEndDate(LocalDate.ofEpochDay(endDay));
+        slotsByStart.put(startDay, slot);
+    }
+
+    private void add(TimeSlot slot) {
+        slots.add(slot);
+        slotsByStart.put(slot.getStartDate().toEpochDay(), slot);
+    }
+
+    private void remove(TimeSlot slot) {
+        slots.remove(slot);
+        slotsByStart.remove(slot.getStartDate().toEpochDay());
+    }
+}
@@ -0,0 +1,41 @@
+package com.komsije.booking.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selects the k best elements with a bounded heap whose head is the worst element kept
+ * so far, so memory stays O(k) and nothing beyond the selected elements is sorted.
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * Returns at most k elements, best first, where better means greater by the comparator.
+     */
+    public static <T> List<T> select(Iterable<T> elements, int k, Comparator<? super T> comparator) {
+        List<T> selected = new ArrayList<>();
+        if (k <= 0) {
+            return selected;
+        }
+        PriorityQueue<T> heap = new PriorityQueue<>(k, comparator);
+        for (T element : elements) {
+            if (heap.size() < k) {
+                heap.add(element);
+            } else if (comparator.compare(element, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(element);
+            }
+        }
+        while (!heap.isEmpty()) {
+            selected.add(heap.poll());
+        }
+        Collections.reverse(selected);
+        return selected;
+    }
+}
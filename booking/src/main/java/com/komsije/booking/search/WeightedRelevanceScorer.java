@@ -0,0 +1,41 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.SearchResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Weighted sum of grade, price per night and number of reviews, each scaled to [0, 1].
+ * Price and review count saturate around their reference values, so a few very cheap
+ * or heavily reviewed listings don't drown out the grade.
+ */
+@Component
+public class WeightedRelevanceScorer implements RelevanceScorer {
+    private static final double MAX_GRADE = 5;
+
+    private final double gradeWeight;
+    private final double priceWeight;
+    private final double reviewWeight;
+    private final double referencePricePerNight;
+    private final double referenceReviewCount;
+
+    public WeightedRelevanceScorer(@Value("${search.ranking.grade-weight:0.5}") double gradeWeight,
+                                   @Value("${search.ranking.price-weight:0.3}") double priceWeight,
+                                   @Value("${search.ranking.review-weight:0.2}") double reviewWeight,
+                                   @Value("${search.ranking.reference-price-per-night:100}") double referencePricePerNight,
+                                   @Value("${search.ranking.reference-review-count:10}") double referenceReviewCount) {
+        this.gradeWeight = gradeWeight;
+        this.priceWeight = priceWeight;
+        this.reviewWeight = reviewWeight;
+        this.referencePricePerNight = referencePricePerNight;
+        this.referenceReviewCount = referenceReviewCount;
+    }
+
+    @Override
+    public double score(SearchResponseDto result) {
+        double grade = Double.isFinite(result.getAverageGrade()) ? result.getAverageGrade() / MAX_GRADE : 0;
+        double price = referencePricePerNight / (referencePricePerNight + Math.max(0, result.getPricePerNight()));
+        double reviews = result.getReviewCount() / (referenceReviewCount + result.getReviewCount());
+        return gradeWeight * grade + priceWeight * price + reviewWeight * reviews;
+    }
+}
@@ -36,6 +36,10 @@ public class WebSecurityConfiguration {
                 .requestMatchers("/api/register/**").permitAll()
                 .requestMatchers("/api/logout").permitAll()
                 .requestMatchers("/api/accommodations/search").permitAll()
+                .requestMatchers("/api/accommodations/search/page").permitAll()
+                .requestMatchers("/api/accommodations/search/top").permitAll()
+                .requestMatchers("/api/accommodations/search/map").permitAll()
+                .requestMatchers("/api/accommodations/locations/suggest").permitAll()
                 .requestMatchers("/api/accommodations/get/*").permitAll()
                 .requestMatchers("/api/reviews/acc*").permitAll()
                 .requestMatchers("/api/reviews/host*").permitAll()
@@ -0,0 +1,30 @@
+package com.komsije.booking.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by all accommodations, picked by accommodation id.
+ * Changes to one accommodation's availability are serialized on this node, while
+ * accommodations on different stripes are booked in parallel.
+ */
+@Component
+public class AccommodationLocks {
+    private static final int STRIPES = 64;
+
+    private final Lock[] locks = new Lock[STRIPES];
+
+    public AccommodationLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forAccommodation(Long accommodationId) {
+        // spread consecutive ids, which are the common case, over the stripes
+        long hash = accommodationId * 0x9E3779B97F4A7C15L;
+        return locks[(int) ((hash >>> 32) & (STRIPES - 1))];
+    }
+}
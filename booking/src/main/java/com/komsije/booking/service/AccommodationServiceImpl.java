@@ -4,33 +4,98 @@ import com.komsije.booking.dto.*;
 import com.komsije.booking.exceptions.ElementNotFoundException;
 import com.komsije.booking.mapper.AccommodationMapper;
 import com.komsije.booking.model.*;
+import com.komsije.booking.repository.AccommodationListingRepository;
 import com.komsije.booking.repository.AccommodationRepository;
 import com.komsije.booking.repository.ReservationRepository;
+import com.komsije.booking.search.AccommodationCalendar;
+import com.komsije.booking.search.AmenityFilter;
+import com.komsije.booking.search.AmenityIndex;
+import com.komsije.booking.search.AvailabilityIndex;
+import com.komsije.booking.search.GeoGridIndex;
+import com.komsije.booking.search.ListingProjector;
+import com.komsije.booking.search.LocationTrie;
+import com.komsije.booking.search.RelevanceScorer;
+import com.komsije.booking.search.Rounding;
+import com.komsije.booking.search.SearchCursor;
+import com.komsije.booking.search.SearchExecutor;
+import com.komsije.booking.search.SearchFacetCollector;
+import com.komsije.booking.search.SearchResultCache;
+import com.komsije.booking.search.SingleFlight;
+import com.komsije.booking.search.Stay;
+import com.komsije.booking.search.TimeSlotCalendar;
+import com.komsije.booking.search.TopK;
 import com.komsije.booking.service.interfaces.AccommodationService;
 import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cglib.core.Local;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.hibernate.Hibernate;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
 
 import static java.lang.StrictMath.round;
 
 @Service
 public class AccommodationServiceImpl implements AccommodationService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAP_SEARCH_BATCH_SIZE = 500;
+    private static final int MAX_FLEXIBLE_DAYS = 14;
+    private static final int MAX_BOOKING_ATTEMPTS = 3;
     @Autowired
     private AccommodationMapper mapper;
     private final AccommodationRepository accommodationRepository;
+    private final AccommodationListingRepository listingRepository;
+    private final ListingProjector listingProjector;
     private final ReservationRepository reservationRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final SearchResultCache searchResultCache;
+    private final SearchExecutor searchExecutor;
+    private final AmenityIndex amenityIndex;
+    private final GeoGridIndex geoGridIndex;
+    private final LocationTrie locationTrie;
+    private final RelevanceScorer relevanceScorer;
+    private final AccommodationLocks accommodationLocks;
+    private final PendingRequestDenier pendingRequestDenier;
+    private final TransactionTemplate bookingTransaction;
+    private final SingleFlight<SearchResultCache.Key, List<SearchResponseDto>> searchFlight = new SingleFlight<>("search");
+    private final SingleFlight<PriceQuoteKey, PriceResponse> priceFlight = new SingleFlight<>("price");
+
+    private record PriceQuoteKey(Long accommodationId, LocalDate startDate, LocalDate endDate, Integer guests) {
+    }
 
     @Autowired
-    public AccommodationServiceImpl(AccommodationRepository accommodationRepository, ReservationRepository reservationRepository) {
+    public AccommodationServiceImpl(AccommodationRepository accommodationRepository, AccommodationListingRepository listingRepository, ListingProjector listingProjector, ReservationRepository reservationRepository, AvailabilityIndex availabilityIndex, SearchResultCache searchResultCache, SearchExecutor searchExecutor, AmenityIndex amenityIndex, GeoGridIndex geoGridIndex, LocationTrie locationTrie, RelevanceScorer relevanceScorer, AccommodationLocks accommodationLocks, PendingRequestDenier pendingRequestDenier, PlatformTransactionManager transactionManager) {
         this.accommodationRepository = accommodationRepository;
+        this.listingRepository = listingRepository;
+        this.listingProjector = listingProjector;
         this.reservationRepository = reservationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.searchResultCache = searchResultCache;
+        this.searchExecutor = searchExecutor;
+        this.amenityIndex = amenityIndex;
+        this.geoGridIndex = geoGridIndex;
+        this.locationTrie = locationTrie;
+        this.relevanceScorer = relevanceScorer;
+        this.accommodationLocks = accommodationLocks;
+        this.pendingRequestDenier = pendingRequestDenier;
+        this.bookingTransaction = new TransactionTemplate(transactionManager);
+        this.bookingTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     public AccommodationDto findById(Long id) throws ElementNotFoundException {
@@ -42,93 +107,153 @@ public class AccommodationServiceImpl implements AccommodationService {
         return mapper.toDto(accommodationRepository.findAll());
     }
 
+    @Transactional
     public AccommodationDto save(AccommodationDto accommodationDto) {
-        accommodationRepository.save(mapper.fromDto(accommodationDto));
+        Accommodation accommodation = accommodationRepository.save(mapper.fromDto(accommodationDto));
+        listingProjector.project(accommodation);
+        afterCommit(() -> {
+            refreshIndexes(accommodation);
+            evictSearchResults(accommodation);
+        });
         return accommodationDto;
     }
 
     @Override
+    @Transactional
     public AccommodationDto update(AccommodationDto accommodationDto) throws ElementNotFoundException {
         Accommodation accommodation = accommodationRepository.findById(accommodationDto.getId()).orElseThrow(()->new ElementNotFoundException("Element with given ID doesn't exist!"));
+        // the accommodation may move, searches of the city it leaves are evicted as well
+        String previousCity = accommodation.getAddress() == null ? null : accommodation.getAddress().getCity();
         mapper.update(accommodation, accommodationDto);
         accommodationRepository.save(accommodation);
+        listingProjector.project(accommodation);
         denyHarmedReservations(accommodation);
+        afterCommit(() -> {
+            refreshIndexes(accommodation);
+            if (accommodation.getAddress() == null || !Objects.equals(previousCity, accommodation.getAddress().getCity()))
+                searchResultCache.evictCity(previousCity);
+            evictSearchResults(accommodation);
+        });
         return accommodationDto;
     }
 
+    @Transactional
     public void delete(Long id) throws ElementNotFoundException {
         if (accommodationRepository.existsById(id)){
             accommodationRepository.deleteById(id);
+            listingProjector.remove(id);
+            afterCommit(() -> {
+                availabilityIndex.evict(id);
+                amenityIndex.evict(id);
+                geoGridIndex.evict(id);
+                locationTrie.evict(id);
+                searchResultCache.clear();
+            });
         }else{
             throw new ElementNotFoundException("Element with given ID doesn't exist!");
         }
 
     }
 
+    private void refreshIndexes(Accommodation accommodation){
+        availabilityIndex.refresh(accommodation);
+        amenityIndex.refresh(accommodation);
+        geoGridIndex.refresh(accommodation);
+        locationTrie.refresh(accommodation);
+    }
+
+    /**
+     * Runs the action once the surrounding transaction has committed, so the in-memory
+     * indexes and the search cache never see changes that are rolled back, and the
+     * accommodation already carries the version written by the flush.
+     */
+    private static void afterCommit(Runnable action){
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     public List<AccommodationDto> getByAccommodationType(AccommodationType type) {
         return mapper.toDto(accommodationRepository.getAccommodationByAccommodationType(type));
     }
     @Override
+    @Transactional
     public void updateAverageGrade(Long id){
         Accommodation accommodation = accommodationRepository.findById(id).orElseThrow(()->new ElementNotFoundException("Element with given ID doesn't exist!"));
-        double averageGrade = 0;
-        int count = 0;
-        for (Review review : accommodation.getReviews()){
-            if (review.getStatus()!=ReviewStatus.Pending){
-                averageGrade += review.getGrade();
-                count++;
-            }
-        }
-        averageGrade = averageGrade / count;
-        accommodation.setAverageGrade(averageGrade);
+        accommodation.setAverageGrade(getAverageGrade(accommodation));
         accommodationRepository.save(accommodation);
-
+        listingProjector.project(accommodation);
+        afterCommit(() -> evictSearchResults(accommodation));
     }
     @Override
+    @Transactional
     public void calculateAverageGrades(){
         List<Accommodation> accommodations = accommodationRepository.findAll();
         for (Accommodation accommodation: accommodations){
-            double averageGrade = 0;
-            int count = 0;
-            for (Review review : accommodation.getReviews()){
-                if (review.getStatus()!= ReviewStatus.Pending){
-                    averageGrade += review.getGrade();
-                    count++;
-                }
-            }
-            averageGrade = averageGrade / count;
-            accommodation.setAverageGrade(averageGrade);
+            accommodation.setAverageGrade(getAverageGrade(accommodation));
             accommodationRepository.save(accommodation);
+            listingProjector.project(accommodation);
         }
+        afterCommit(searchResultCache::clear);
         System.out.println("Updated average grades!");
     }
 
+    // an accommodation without reviews is graded 0, a NaN grade would drop it from grade ordered pages
+    private static double getAverageGrade(Accommodation accommodation){
+        double averageGrade = 0;
+        int count = 0;
+        for (Review review : accommodation.getReviews()){
+            if (review.getStatus()!=ReviewStatus.Pending){
+                averageGrade += review.getGrade();
+                count++;
+            }
+        }
+        return count == 0 ? 0 : averageGrade / count;
+    }
+
     @Override
     public AccommodationDto updateAvailability(Long accommodationId, AvailabilityDto availabilityDto) throws ElementNotFoundException {
-        Accommodation accommodation = accommodationRepository.findById(accommodationId).orElseThrow(()->new ElementNotFoundException("Element with given ID doesn't exist!"));
-        mapper.update(accommodation, availabilityDto);
-        accommodationRepository.save(accommodation);
+        Accommodation accommodation = changeAccommodation(accommodationId, current -> {
+            mapper.update(current, availabilityDto);
+            listingProjector.project(current);
+        });
+        denyHarmedReservations(accommodation);
         return mapper.toDto(accommodation);
     }
 
+    private void evictSearchResults(Accommodation accommodation){
+        if (accommodation.getAddress() != null)
+            searchResultCache.evictCity(accommodation.getAddress().getCity());
+    }
+
+    // checked against the accommodation's own slots, the index only catches up after commit
     private void denyHarmedReservations(Accommodation accommodation){
-        List<Reservation> reservations = reservationRepository.findPendingByAccommodationId(accommodation.getId());
-        for (Reservation reservation : reservations) {
-            LocalDate startDate = reservation.getStartDate();
-            LocalDate endDate = startDate.plusDays(reservation.getDays());
-            if (!isAvailable(accommodation, startDate, endDate)){
-                reservation.setReservationStatus(ReservationStatus.Denied);
-                reservationRepository.save(reservation);
+        AccommodationCalendar calendar = AccommodationCalendar.of(accommodation.getAvailability());
+        List<Object[]> harmed = new ArrayList<>();
+        for (Object[] row : reservationRepository.findPendingStays(accommodation.getId())) {
+            if (!calendar.covers((LocalDate) row[3], (LocalDate) row[4])){
+                harmed.add(row);
             }
         }
+        pendingRequestDenier.deny(harmed, PendingRequestDenier.DENIED_BY_HOST);
     }
 
     public List<AccommodationDto> getByLocationNumOfGuestsAndDate(String location, Integer numOfGuests, LocalDate startDate, LocalDate endDate) {
         return mapper.toDto(accommodationRepository.getAccommodationsByLocationNumOfGuestsAndDate(location, numOfGuests, startDate, endDate));
     }
 
-    public List<AccommodationDto> getByAmenities(List<String> amenities) {
-        return mapper.toDto(accommodationRepository.getAccommodationsByAmenities(amenities));
+    public List<AccommodationDto> getByAmenities(AmenityFilter amenityFilter) {
+        // a filter without amenities to match would load every accommodation
+        if (amenityFilter.all().isEmpty() && amenityFilter.any().isEmpty())
+            throw new IllegalArgumentException("At least one amenity to match must be given!");
+        return mapper.toDto(accommodationRepository.findAllById(amenityIndex.findMatching(amenityFilter)));
     }
 
     public Accommodation findModelById(Long id) throws ElementNotFoundException {
@@ -150,235 +275,353 @@ public class AccommodationServiceImpl implements AccommodationService {
     @Override
     public List<AccommodationShortDto> getAllShort(){
         List<AccommodationShortDto> properties = new ArrayList<>();
-        for (Accommodation accommodation :accommodationRepository.findAll()){
-            String address = accommodation.getAddress().getStreet() + ", " + accommodation.getAddress().getCity();
-            properties.add(new AccommodationShortDto(accommodation.getId(),   accommodation.getName(), address, accommodation.getDescription(), accommodation.getAverageGrade(), accommodation.getPhotos()));
+        for (AccommodationListing listing :listingRepository.findAll()){
+            String address = listing.getStreet() + ", " + listing.getCity();
+            properties.add(new AccommodationShortDto(listing.getId(),   listing.getName(), address, listing.getDescription(), listing.getAverageGrade(), ListingProjector.getPhotos(listing)));
         }
         return properties;}
 
 
     @Override
     public List<SearchResponseDto> getSearchedAccommodations(SearchRequestDto searchRequestDto) {
-        List<SearchResponseDto> filteredAccommodations = new ArrayList<>();
-        List<Accommodation> accommodations = new ArrayList<>();
-        if (searchRequestDto.getGuests()==0)
-            accommodations = this.accommodationRepository.getActive();
+        LocalDate startDate = searchRequestDto.getStartDate().toLocalDate();
+        LocalDate endDate = searchRequestDto.getEndDate().toLocalDate();
+        int flexibleDays = getFlexibleDays(searchRequestDto);
+        SearchResultCache.Key key = toCacheKey(searchRequestDto);
+        // identical searches arriving together share one cache lookup and one computation
+        if (flexibleDays > 0)
+            return searchFlight.execute(key, () -> searchResultCache.get(key, () -> searchFlexibleAccommodations(searchRequestDto, startDate, endDate, flexibleDays)));
+        return searchFlight.execute(key, () -> searchResultCache.get(key, () -> searchAccommodations(searchRequestDto, startDate, endDate)));
+    }
+
+    private SearchResultCache.Key toCacheKey(SearchRequestDto searchRequestDto) {
+        return SearchResultCache.Key.of(searchRequestDto.getPlace(), searchRequestDto.getStartDate().toLocalDate(), searchRequestDto.getEndDate().toLocalDate(),
+                searchRequestDto.getGuests(), toAmenityFilter(searchRequestDto), getFlexibleDays(searchRequestDto));
+    }
+
+    @Override
+    public SearchCacheStatsDto getSearchCacheStats() {
+        return searchResultCache.getStats();
+    }
+
+    @Override
+    public List<CoalescingStatsDto> getCoalescingStats() {
+        return List.of(searchFlight.getStats(), priceFlight.getStats());
+    }
+
+    private List<SearchResponseDto> searchAccommodations(SearchRequestDto searchRequestDto, LocalDate startDate, LocalDate endDate){
+        AmenityFilter amenityFilter = toAmenityFilter(searchRequestDto);
+        List<AccommodationListing> listings = this.listingRepository.search(searchRequestDto.getPlace().trim(), searchRequestDto.getGuests())
+                .stream().filter(listing -> amenityIndex.matches(listing.getId(), amenityFilter)).toList();
+        return evaluateCandidates(listings, startDate, endDate, searchRequestDto.getGuests());
+    }
+
+    private List<SearchResponseDto> searchFlexibleAccommodations(SearchRequestDto searchRequestDto, LocalDate startDate, LocalDate endDate, int flexibleDays){
+        AmenityFilter amenityFilter = toAmenityFilter(searchRequestDto);
+        List<AccommodationListing> listings = this.listingRepository.search(searchRequestDto.getPlace().trim(), searchRequestDto.getGuests())
+                .stream().filter(listing -> amenityIndex.matches(listing.getId(), amenityFilter)).toList();
+        availabilityIndex.preload(listings.stream().map(AccommodationListing::getId).toList());
+
+        int nights = (int) ChronoUnit.DAYS.between(startDate, endDate);
+        List<Stay> stays = searchExecutor.map(listings.size(), i -> availabilityIndex.getCheapestStay(listings.get(i).getId(), startDate, nights, flexibleDays));
+        List<SearchResponseDto> results = new ArrayList<>();
+        for (int i = 0; i < stays.size(); i++) {
+            Stay stay = stays.get(i);
+            if (stay != null) {
+                AccommodationListing listing = listings.get(i);
+                double price = stay.price() * getGuestMultiplier(listing.isPricePerGuest(), listing.getMaxGuests(), searchRequestDto.getGuests());
+                results.add(toSearchResult(listing, stay.startDate(), stay.endDate(), price));
+            }
+        }
+        return results;
+    }
+
+    private int getFlexibleDays(SearchRequestDto searchRequestDto){
+        if (searchRequestDto.getFlexibleDays() == null)
+            return 0;
+        return Math.max(0, Math.min(searchRequestDto.getFlexibleDays(), MAX_FLEXIBLE_DAYS));
+    }
+
+    @Override
+    public List<SearchResponseDto> getAccommodationsOnMap(MapSearchRequestDto mapSearchRequestDto) {
+        List<Long> ids;
+        if (mapSearchRequestDto.getRadiusKm() != null && mapSearchRequestDto.getLatitude() != null && mapSearchRequestDto.getLongitude() != null)
+            ids = geoGridIndex.findInRadius(mapSearchRequestDto.getLatitude(), mapSearchRequestDto.getLongitude(), mapSearchRequestDto.getRadiusKm());
+        else if (mapSearchRequestDto.getMinLatitude() != null && mapSearchRequestDto.getMinLongitude() != null && mapSearchRequestDto.getMaxLatitude() != null && mapSearchRequestDto.getMaxLongitude() != null)
+            ids = geoGridIndex.findInBox(mapSearchRequestDto.getMinLatitude(), mapSearchRequestDto.getMinLongitude(), mapSearchRequestDto.getMaxLatitude(), mapSearchRequestDto.getMaxLongitude());
         else
-            accommodations = this.accommodationRepository.getAccommodationsByNumberOfGuests(searchRequestDto.getGuests());
+            throw new IllegalArgumentException("Either a bounding box or a point with radius is required!");
+
+        LocalDate startDate = mapSearchRequestDto.getStartDate().toLocalDate();
+        LocalDate endDate = mapSearchRequestDto.getEndDate().toLocalDate();
+        List<AccommodationListing> listings = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAP_SEARCH_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + MAP_SEARCH_BATCH_SIZE, ids.size()));
+            listings.addAll(listingRepository.searchByIds(batch, mapSearchRequestDto.getGuests()));
+        }
+        return evaluateCandidates(listings, startDate, endDate, mapSearchRequestDto.getGuests());
+    }
 
-        for (Accommodation accommodation: accommodations) {
-            if(isValid(accommodation, searchRequestDto)){
-                SearchResponseDto accommodationDto = mapper.toSearchedDto(accommodation);
-                double price = calculatePrice(accommodation, searchRequestDto.getStartDate().toLocalDate(), searchRequestDto.getEndDate().toLocalDate(), searchRequestDto.getGuests());
-                accommodationDto.setPrice(price);
-                int days = (int) ChronoUnit.DAYS.between(searchRequestDto.getStartDate(), searchRequestDto.getEndDate());
-                DecimalFormat df = new DecimalFormat("#.##");
-                accommodationDto.setPricePerNight(Double.parseDouble(df.format(price/days)));
-                filteredAccommodations.add(accommodationDto);
+    @Override
+    public List<LocationSuggestionDto> suggestLocations(String prefix) {
+        return locationTrie.suggest(prefix);
+    }
+
+    private List<SearchResponseDto> evaluateCandidates(List<AccommodationListing> listings, LocalDate startDate, LocalDate endDate, int guests){
+        List<SearchResponseDto> filteredAccommodations = new ArrayList<>();
+        availabilityIndex.preload(listings.stream().map(AccommodationListing::getId).toList());
+
+        // the listing query has no date conditions, availability and price come from the index
+        double[] prices = searchExecutor.evaluate(listings.size(), i -> {
+            AccommodationListing listing = listings.get(i);
+            if (!availabilityIndex.isAvailable(listing.getId(), startDate, endDate))
+                return Double.NaN;
+            return calculatePrice(listing.getId(), listing.isPricePerGuest(), listing.getMaxGuests(), startDate, endDate, guests);
+        });
+        for (int i = 0; i < prices.length; i++) {
+            if (!Double.isNaN(prices[i])) {
+                filteredAccommodations.add(toSearchResult(listings.get(i), startDate, endDate, prices[i]));
             }
         }
         return filteredAccommodations;
     }
 
     @Override
-    public List<HostPropertyDto> getUnapprovedAccommodations() {
-        List<HostPropertyDto> properties = new ArrayList<>();
-        for (Accommodation accommodation :accommodationRepository.findUnapproved()){
-            String address = accommodation.getAddress().getStreet() + ", " + accommodation.getAddress().getCity();
-            AccommodationStatus status = accommodation.getStatus();
-            properties.add(new HostPropertyDto(accommodation.getId(),   accommodation.getName(), address, accommodation.getHost().getFirstName() + accommodation.getHost().getLastName(), status, accommodation.getDescription(), accommodation.getPhotos()));
+    public SearchPageDto getSearchedPage(SearchRequestDto searchRequestDto) {
+        SearchSort sort = searchRequestDto.getSort() == null ? SearchSort.ID : searchRequestDto.getSort();
+        int pageSize = searchRequestDto.getPageSize() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(searchRequestDto.getPageSize(), MAX_PAGE_SIZE));
+        SearchCursor cursor = null;
+        if (searchRequestDto.getCursor() != null && !searchRequestDto.getCursor().isBlank())
+            cursor = SearchCursor.decode(searchRequestDto.getCursor(), sort);
+        // price isn't stored and flexible dates don't fit the keyset queries, both are paged over the full result
+        SearchPageDto page = sort == SearchSort.PRICE || getFlexibleDays(searchRequestDto) > 0
+                ? getPageInMemory(searchRequestDto, sort, cursor, pageSize)
+                : getPageFromDatabase(searchRequestDto, sort, cursor, pageSize);
+        if (searchRequestDto.isFacets() && cursor == null) {
+            // facets cover the whole result, they come with the first page and are cached with the search
+            page.setFacets(searchResultCache.getFacets(toCacheKey(searchRequestDto), () -> getSearchedAccommodations(searchRequestDto), this::collectFacets));
         }
-        return properties;
+        return page;
+    }
+
+    private SearchFacetsDto collectFacets(List<SearchResponseDto> results) {
+        SearchFacetCollector facetCollector = new SearchFacetCollector();
+        results.forEach(facetCollector::add);
+        return facetCollector.toDto(amenityIndex);
     }
 
     @Override
-    public void reserveTimeslot(Long id, LocalDate startDate, LocalDate endDate) {
-        Accommodation accommodation = accommodationRepository.findById(id).orElseThrow(()->new ElementNotFoundException("Element with given ID doesn't exist!"));
+    public List<SearchResponseDto> getTopRanked(SearchRequestDto searchRequestDto, int limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("Limit must be positive!");
+        Comparator<SearchResponseDto> byRelevance = Comparator.comparingDouble(relevanceScorer::score)
+                .thenComparing(SearchResponseDto::getId, Comparator.reverseOrder());
+        return TopK.select(getSearchedAccommodations(searchRequestDto), Math.min(limit, MAX_PAGE_SIZE), byRelevance);
+    }
 
-        List<TimeSlot> slots = accommodation.getAvailability();
-        Set<TimeSlot> slotsToDelete = new HashSet<>();
-        Set<TimeSlot> slotsToAdd = new HashSet<>();
-        slots.sort((item1, item2) -> {
-            return Math.toIntExact(item1.getStartDate().toEpochDay() - item2.getStartDate().toEpochDay());
+    private SearchPageDto getPageInMemory(SearchRequestDto searchRequestDto, SearchSort sort, SearchCursor cursor, int pageSize){
+        ToDoubleFunction<SearchResponseDto> cursorKey = switch (sort) {
+            case PRICE -> SearchResponseDto::getPrice;
+            case GRADE -> SearchResponseDto::getAverageGrade;
+            case ID -> result -> result.getId();
+        };
+        // grades are paged best first; cursors keep the plain grade, the same as the database path
+        double direction = sort == SearchSort.GRADE ? -1 : 1;
+        ToDoubleFunction<SearchResponseDto> sortKey = result -> direction * cursorKey.applyAsDouble(result);
+        Comparator<SearchResponseDto> bySortKey = Comparator.comparingDouble(sortKey).thenComparing(SearchResponseDto::getId);
+        // the full result is searched, priced and sorted once and cached, later pages only look up their window
+        List<SearchResponseDto> sorted = searchResultCache.getSorted(toCacheKey(searchRequestDto), sort, () -> getSearchedAccommodations(searchRequestDto), results -> {
+            List<SearchResponseDto> copy = new ArrayList<>(results);
+            copy.sort(bySortKey);
+            return copy;
         });
-        for (TimeSlot slot: slots){
-            if (slot.isOccupied()){
-                continue;
-            }
-            else if (startDate.isEqual(slot.getStartDate()) && endDate.isEqual(slot.getEndDate())){
-                slot.setOccupied(true);
-                break;
-            }
-            else if (startDate.isEqual(slot.getStartDate())){
-                if (endDate.isBefore(slot.getEndDate())){
-                    TimeSlot slot1 = new TimeSlot(null, startDate, endDate, slot.getPrice(), true);
-                    TimeSlot slot2 = new TimeSlot(null, endDate, slot.getEndDate(), slot.getPrice(), false);
-                    slotsToAdd.add(slot1);
-                    slotsToAdd.add(slot2);
-                    slotsToDelete.add(slot);
-                    break;
-                }
-                else {
-                    slot.setOccupied(true);
-                    startDate=slot.getEndDate();
-                    continue;
-                }
+        int from = cursor == null ? 0 : firstAfter(sorted, sortKey, direction * cursor.key(), cursor.id());
+        int to = Math.min(from + pageSize, sorted.size());
+        List<SearchResponseDto> results = new ArrayList<>(sorted.subList(from, to));
+        if (to == sorted.size())
+            return new SearchPageDto(results, null);
+        SearchResponseDto last = sorted.get(to - 1);
+        return new SearchPageDto(results, new SearchCursor(sort, cursorKey.applyAsDouble(last), last.getId()).encode());
+    }
 
-            }
-            else if (startDate.isAfter(slot.getStartDate())){
-                if(endDate.isEqual(slot.getEndDate())){
-                    TimeSlot slot1 = new TimeSlot(null, startDate, endDate, slot.getPrice(), true);
-                    TimeSlot slot2 = new TimeSlot(null, slot.getStartDate(), startDate, slot.getPrice(), false);
-                    slotsToAdd.add(slot1);
-                    slotsToAdd.add(slot2);
-                    slotsToDelete.add(slot);
-                    break;
-                }
-                else if(endDate.isBefore(slot.getEndDate())){
-                    TimeSlot slot1 = new TimeSlot(null, slot.getStartDate(), startDate, slot.getPrice(), false);
-                    TimeSlot slot2 = new TimeSlot(null, endDate, slot.getEndDate(), slot.getPrice(), false);
-                    TimeSlot slot3 = new TimeSlot(null, startDate, endDate,slot.getPrice(), true);
-                    slotsToAdd.add(slot1);
-                    slotsToAdd.add(slot2);
-                    slotsToAdd.add(slot3);
-                    slotsToDelete.add(slot);
-                    break;
-                }
-                else if (startDate.isBefore(slot.getEndDate())){
-                    TimeSlot slot1 = new TimeSlot(null, slot.getStartDate(), startDate, slot.getPrice(), false);
-                    TimeSlot slot2 = new TimeSlot(null, startDate, slot.getEndDate(),slot.getPrice(), true);
-                    slotsToAdd.add(slot1);
-                    slotsToAdd.add(slot2);
-                    slotsToDelete.add(slot);
-                    startDate = slot.getEndDate();
-                    continue;
-                }
+    private static int firstAfter(List<SearchResponseDto> sorted, ToDoubleFunction<SearchResponseDto> sortKey, double lastKey, long lastId){
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            SearchResponseDto result = sorted.get(middle);
+            double key = sortKey.applyAsDouble(result);
+            if (key < lastKey || (key == lastKey && result.getId() <= lastId))
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
 
+    private SearchPageDto getPageFromDatabase(SearchRequestDto searchRequestDto, SearchSort sort, SearchCursor cursor, int pageSize){
+        String place = searchRequestDto.getPlace().trim();
+        LocalDate startDate = searchRequestDto.getStartDate().toLocalDate();
+        LocalDate endDate = searchRequestDto.getEndDate().toLocalDate();
+        long lastId = cursor == null ? 0 : cursor.id();
+        double lastGrade = cursor == null ? Double.MAX_VALUE : cursor.key();
+        Pageable batch = PageRequest.of(0, pageSize + 1);
+        AmenityFilter amenityFilter = toAmenityFilter(searchRequestDto);
+
+        List<AccommodationListing> page = new ArrayList<>();
+        while (page.size() <= pageSize) {
+            List<AccommodationListing> listings = sort == SearchSort.GRADE
+                    ? listingRepository.searchAfterGrade(place, searchRequestDto.getGuests(), lastGrade, lastId, batch)
+                    : listingRepository.searchAfterId(place, searchRequestDto.getGuests(), lastId, batch);
+            availabilityIndex.preload(listings.stream().map(AccommodationListing::getId).toList());
+            for (AccommodationListing listing : listings) {
+                lastId = listing.getId();
+                lastGrade = listing.getAverageGrade();
+                if (amenityIndex.matches(listing.getId(), amenityFilter) && availabilityIndex.isAvailable(listing.getId(), startDate, endDate))
+                    page.add(listing);
+                if (page.size() > pageSize)
+                    break;
             }
+            if (listings.size() < batch.getPageSize())
+                break;
+        }
+
+        String nextCursor = null;
+        if (page.size() > pageSize) {
+            page = page.subList(0, pageSize);
+            AccommodationListing last = page.get(pageSize - 1);
+            double key = sort == SearchSort.GRADE ? last.getAverageGrade() : last.getId();
+            nextCursor = new SearchCursor(sort, key, last.getId()).encode();
         }
-        for (TimeSlot slt: slotsToDelete){
-            accommodation.getAvailability().remove(slt);
+        List<SearchResponseDto> results = new ArrayList<>();
+        for (AccommodationListing listing : page) {
+            double price = calculatePrice(listing.getId(), listing.isPricePerGuest(), listing.getMaxGuests(), startDate, endDate, searchRequestDto.getGuests());
+            results.add(toSearchResult(listing, startDate, endDate, price));
         }
-        for (TimeSlot slt: slotsToAdd){
-            accommodation.getAvailability().add(slt);
+        return new SearchPageDto(results, nextCursor);
+    }
+
+    private AmenityFilter toAmenityFilter(SearchRequestDto searchRequestDto){
+        return AmenityFilter.of(searchRequestDto.getAllAmenities(), searchRequestDto.getAnyAmenities(), searchRequestDto.getNoneAmenities());
+    }
+
+    private SearchResponseDto toSearchResult(AccommodationListing listing, LocalDate startDate, LocalDate endDate, double price){
+        SearchResponseDto accommodationDto = mapper.toSearchedDto(listing);
+        accommodationDto.setPrice(price);
+        accommodationDto.setStartDate(startDate);
+        accommodationDto.setEndDate(endDate);
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate);
+        accommodationDto.setPricePerNight(Rounding.twoDecimals(price/days));
+        return accommodationDto;
+    }
+
+    @Override
+    public List<HostPropertyDto> getUnapprovedAccommodations() {
+        List<HostPropertyDto> properties = new ArrayList<>();
+        for (Accommodation accommodation :accommodationRepository.findUnapproved()){
+            String address = accommodation.getAddress().getStreet() + ", " + accommodation.getAddress().getCity();
+            AccommodationStatus status = accommodation.getStatus();
+            properties.add(new HostPropertyDto(accommodation.getId(),   accommodation.getName(), address, accommodation.getHost().getFirstName() + accommodation.getHost().getLastName(), status, accommodation.getDescription(), accommodation.getPhotos()));
         }
-        this.accommodationRepository.save(accommodation);
+        return properties;
+    }
+
+    @Override
+    public void reserveTimeslot(Long id, LocalDate startDate, LocalDate endDate) {
+        changeAvailability(id, calendar -> calendar.reserve(startDate, endDate));
     }
 
     @Override
     public void restoreTimeslot(Reservation reservation){
         LocalDate resStart = reservation.getStartDate();
         LocalDate resEnd = reservation.getStartDate().plusDays(reservation.getDays());
-        Accommodation accommodation = reservation.getAccommodation();
-        this.setSlotsToFree(resStart, resEnd, accommodation);
-        List<TimeSlot> timeSlots = accommodation.getAvailability();
-        timeSlots.sort((item1, item2) -> {
-            return Math.toIntExact(item1.getStartDate().toEpochDay() - item2.getStartDate().toEpochDay());
-        });
-
-        List<TimeSlot> forRemoval = new ArrayList<>();
-        for (int i =0; i< timeSlots.size()-1; i++){
-            if (timeSlots.get(i).getEndDate().isEqual(timeSlots.get(i+1).getStartDate()) && timeSlots.get(i).getPrice() == timeSlots.get(i+1).getPrice()){
-                timeSlots.get(i+1).setStartDate(timeSlots.get(i).getStartDate());
-                forRemoval.add(timeSlots.get(i));
-            }
-        }
-        for (TimeSlot slot: forRemoval){
-            timeSlots.remove(slot);
-        }
-        accommodation.setAvailability(timeSlots);
-        accommodationRepository.save(accommodation);
-    }
-    private void setSlotsToFree(LocalDate start, LocalDate end, Accommodation accommodation){
-        List<TimeSlot> slots = accommodation.getAvailability();
-        for (TimeSlot slot : slots){
-            if (slot.isOccupied()){
-                if ((slot.getStartDate().isEqual(start) || slot.getStartDate().isAfter(start)) && (slot.getEndDate().isEqual(end) || slot.getEndDate().isBefore(end))){
-                    slot.setOccupied(false);
-                }
-            }
-        }
-        accommodation.setAvailability(slots);
-        accommodationRepository.save(accommodation);
+        changeAvailability(reservation.getAccommodation().getId(), calendar -> calendar.release(resStart, resEnd));
     }
 
-    private boolean isValid(Accommodation accommodation, SearchRequestDto searchRequestDto){
-        return accommodation.getAddress().getCity().toLowerCase().equals(searchRequestDto.getPlace().toLowerCase().trim()) && isAvailable(accommodation, searchRequestDto.getStartDate().toLocalDate(), searchRequestDto.getEndDate().toLocalDate());
+    private void changeAvailability(Long id, Consumer<TimeSlotCalendar> change) {
+        changeAccommodation(id, current -> change.accept(new TimeSlotCalendar(current.getAvailability())));
     }
 
-    private boolean isAvailable(Accommodation accommodation, LocalDate startDate, LocalDate endDate){
-        List<TimeSlot> slots = accommodation.getAvailability();
-        slots.sort((item1, item2) -> {
-            return Math.toIntExact(item1.getStartDate().toEpochDay() - item2.getStartDate().toEpochDay());
-        });
-        for (TimeSlot slot : slots) {
-            if (slot.isOccupied())
-                continue;
-            if(slot.getEndDate().isBefore(startDate))
-                continue;
-            else if (slot.getStartDate().isAfter(startDate))
-                if(slot.getStartDate().isAfter(endDate))                    //slot.getStartDate
-                    continue;
-                else{
-                    endDate = slot.getStartDate().minusDays(1);
+    /**
+     * Applies a change to the availability of one accommodation under its lock, each attempt
+     * in a new transaction. The version check on the accommodation catches writers on other
+     * nodes, a conflicting attempt is rolled back and retried on freshly loaded slots.
+     */
+    private Accommodation changeAccommodation(Long id, Consumer<Accommodation> change) {
+        Lock lock = accommodationLocks.forAccommodation(id);
+        lock.lock();
+        try {
+            Accommodation accommodation = null;
+            for (int attempt = 1; accommodation == null; attempt++) {
+                try {
+                    accommodation = bookingTransaction.execute(status -> {
+                        Accommodation current = accommodationRepository.findById(id).orElseThrow(()->new ElementNotFoundException("Element with given ID doesn't exist!"));
+                        change.accept(current);
+                        accommodationRepository.save(current);
+                        // the city is read for cache eviction once the transaction is gone
+                        Hibernate.initialize(current.getAddress());
+                        return current;
+                    });
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt == MAX_BOOKING_ATTEMPTS)
+                        throw e;
                 }
-            else if(slot.getEndDate().isAfter(endDate) || slot.getEndDate().isEqual(endDate))
-                return true;
-            else{
-                startDate=slot.getEndDate().plusDays(1);
-                continue;
             }
+            availabilityIndex.refresh(accommodation);
+            evictSearchResults(accommodation);
+            return accommodation;
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
+    private double calculatePrice(Long accommodationId, boolean isPricePerGuest, int maxGuests, LocalDate startDate, LocalDate endDate, Integer numberOfGuests){
+        return availabilityIndex.getPrice(accommodationId, startDate, endDate) * getGuestMultiplier(isPricePerGuest, maxGuests, numberOfGuests);
+    }
 
-    private double calculatePrice(Accommodation accommodation, LocalDate startDate, LocalDate endDate, Integer numberOfGuests){
-        double price = 0;
-        List<TimeSlot> slots = accommodation.getAvailability();
+    private int getGuestMultiplier(boolean isPricePerGuest, int maxGuests, Integer numberOfGuests){
         int guestNumber = 1;
-        if(accommodation.isPricePerGuest()){
+        if(isPricePerGuest){
             if(numberOfGuests==null)
-                guestNumber=accommodation.getMaxGuests();
+                guestNumber=maxGuests;
             else
                 guestNumber=numberOfGuests;
         }
-        for (TimeSlot slot : slots) {
-            if(slot.getEndDate().isBefore(startDate))
-                continue;
-            else if (slot.getStartDate().isAfter(startDate))
-                if(slot.getEndDate().isAfter(endDate))              //slot.getStartDate *
-                    continue;
-                else{
-                    int days = (int) ChronoUnit.DAYS.between(slot.getStartDate(), endDate) + 1;
-                    price = price + slot.getPrice()*days*guestNumber;
-                    endDate = slot.getStartDate().minusDays(1);
-                    if (startDate.isAfter(endDate) || startDate.isEqual(endDate))
-                        break;
-                }
-            else if(slot.getEndDate().isAfter(endDate) || slot.getEndDate().isEqual(endDate))
-            {
-                int days = (int) ChronoUnit.DAYS.between(startDate,endDate);
-                price = price+slot.getPrice()*days*guestNumber;
-                return price;
-            }
-            else{   //equals
-                int days = (int) ChronoUnit.DAYS.between(startDate, slot.getEndDate());
-                price = price + slot.getPrice()*days*guestNumber;
-
-                startDate=slot.getEndDate().plusDays(0);
-                if (startDate.isAfter(endDate) || startDate.isEqual(endDate))
-                    break;
-                continue;
-            }
-        }
-        return price;
+        return guestNumber;
     }
 
     public PriceResponse getAvailabilityPrice(PriceRequest priceRequest) {
-        Accommodation accommodation = accommodationRepository.findById(priceRequest.getAccommodationId()).orElseThrow(() -> new ElementNotFoundException("Accommodation not found"));
+        PriceQuoteKey key = new PriceQuoteKey(priceRequest.getAccommodationId(), priceRequest.getStartDate(), priceRequest.getEndDate(), priceRequest.getGuests());
+        return priceFlight.execute(key, () -> {
+            Accommodation accommodation = accommodationRepository.findById(priceRequest.getAccommodationId()).orElseThrow(() -> new ElementNotFoundException("Accommodation not found"));
+            return quotePrice(accommodation, priceRequest);
+        });
+    }
+
+    @Override
+    public List<PriceResponse> getAvailabilityPrices(List<PriceRequest> priceRequests) {
+        Set<Long> ids = new HashSet<>();
+        for (PriceRequest priceRequest : priceRequests) {
+            ids.add(priceRequest.getAccommodationId());
+        }
+        Map<Long, Accommodation> accommodations = new HashMap<>();
+        for (Accommodation accommodation : accommodationRepository.findAllById(ids)) {
+            accommodations.put(accommodation.getId(), accommodation);
+        }
+        availabilityIndex.preload(accommodations.keySet());
+
+        List<PriceResponse> priceResponses = new ArrayList<>();
+        for (PriceRequest priceRequest : priceRequests) {
+            Accommodation accommodation = accommodations.get(priceRequest.getAccommodationId());
+            if (accommodation == null)
+                throw new ElementNotFoundException("Accommodation not found");
+            priceResponses.add(quotePrice(accommodation, priceRequest));
+        }
+        return priceResponses;
+    }
 
-        boolean isAvailable = isAvailable(accommodation, priceRequest.getStartDate(), priceRequest.getEndDate());
+    private PriceResponse quotePrice(Accommodation accommodation, PriceRequest priceRequest) {
+        boolean isAvailable = availabilityIndex.isAvailable(accommodation.getId(), priceRequest.getStartDate(), priceRequest.getEndDate());
         if(!isAvailable) {
             return new PriceResponse(false, 0, 0);
         }
@@ -386,7 +629,7 @@ public class AccommodationServiceImpl implements AccommodationService {
         priceResponse.setAvailable(true);
 
         //promenjena je calculatePrice funkcija
-        double price = calculatePrice(accommodation, priceRequest.getStartDate(), priceRequest.getEndDate(),priceRequest.getGuests());
+        double price = calculatePrice(accommodation.getId(), accommodation.isPricePerGuest(), accommodation.getMaxGuests(), priceRequest.getStartDate(), priceRequest.getEndDate(),priceRequest.getGuests());
         priceResponse.setTotalPrice(price);
         int days = (int) ChronoUnit.DAYS.between(priceRequest.getStartDate(), priceRequest.getEndDate());
         priceResponse.setPricePerNight(price/days);
@@ -8,19 +8,19 @@ import com.komsije.booking.mapper.GuestMapper;
 import com.komsije.booking.model.*;
 import com.komsije.booking.repository.AccountRepository;
 import com.komsije.booking.repository.GuestRepository;
+import com.komsije.booking.scheduling.DeadlineKind;
+import com.komsije.booking.scheduling.DeadlineScheduler;
 import com.komsije.booking.service.interfaces.ConfirmationTokenService;
 import com.komsije.booking.service.interfaces.GuestService;
 import com.komsije.booking.service.interfaces.NotificationService;
 import com.komsije.booking.service.interfaces.ReservationService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -40,16 +40,16 @@ public class GuestServiceImpl implements GuestService {
     private final AccountRepository accountRepository;
     private final ConfirmationTokenService confirmationTokenService;
     private final ReservationService reservationService;
-    private final TaskScheduler taskScheduler;
+    private final DeadlineScheduler deadlineScheduler;
     private final NotificationService notificationService;
 
     @Autowired
-    public GuestServiceImpl(GuestRepository guestRepository, AccountRepository accountRepository, ConfirmationTokenService confirmationTokenService, ReservationService reservationService, TaskScheduler taskScheduler, NotificationService notificationService) {
+    public GuestServiceImpl(GuestRepository guestRepository, AccountRepository accountRepository, ConfirmationTokenService confirmationTokenService, ReservationService reservationService, DeadlineScheduler deadlineScheduler, NotificationService notificationService) {
         this.guestRepository = guestRepository;
         this.accountRepository = accountRepository;
         this.confirmationTokenService = confirmationTokenService;
         this.reservationService = reservationService;
-        this.taskScheduler = taskScheduler;
+        this.deadlineScheduler = deadlineScheduler;
         this.notificationService = notificationService;
     }
 
@@ -129,18 +129,10 @@ public class GuestServiceImpl implements GuestService {
         LocalDateTime expiration = LocalDateTime.now().plusHours(24);
         ConfirmationToken confirmationToken = new ConfirmationToken(token, LocalDateTime.now(), expiration, accountRepository.findById(id).orElseGet(null));
         confirmationTokenService.saveConfirmationToken(confirmationToken);
-        Runnable task1 = () -> deleteIfNotActivated(id);
-        this.taskScheduler.schedule(task1, expiration.toInstant(ZoneOffset.UTC));
+        deadlineScheduler.schedule(DeadlineKind.ACCOUNT_ACTIVATION, id, expiration);
         return token;
     }
 
-    private void deleteIfNotActivated(Long accountId) {
-        Account account = accountRepository.findById(accountId).orElse(null);
-        if (!account.isActivated()) {
-            accountRepository.delete(account);
-        }
-    }
-
     @Override
     public GuestDto getByEmail(String email) throws ElementNotFoundException {
         Guest guest = guestRepository.findByEmail(email);
@@ -15,17 +15,17 @@ import com.komsije.booking.model.ConfirmationToken;
 import com.komsije.booking.model.Host;
 import com.komsije.booking.repository.AccountRepository;
 import com.komsije.booking.repository.HostRepository;
+import com.komsije.booking.scheduling.DeadlineKind;
+import com.komsije.booking.scheduling.DeadlineScheduler;
 import com.komsije.booking.service.interfaces.AccommodationService;
 import com.komsije.booking.service.interfaces.ConfirmationTokenService;
 import com.komsije.booking.service.interfaces.HostService;
 import com.komsije.booking.service.interfaces.ReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.List;
 import java.util.UUID;
 
@@ -41,17 +41,17 @@ public class HostServiceImpl implements HostService {
     private final AccountRepository accountRepository;
     private final ConfirmationTokenService confirmationTokenService;
     private final ReservationService reservationService;
-    private final TaskScheduler taskScheduler;
+    private final DeadlineScheduler deadlineScheduler;
     private final AccommodationService accommodationService;
 
 
     @Autowired
-    public HostServiceImpl(HostRepository hostRepository, AccountRepository accountRepository, ConfirmationTokenService confirmationTokenService, ReservationService reservationService, TaskScheduler taskScheduler, AccommodationService accommodationService) {
+    public HostServiceImpl(HostRepository hostRepository, AccountRepository accountRepository, ConfirmationTokenService confirmationTokenService, ReservationService reservationService, DeadlineScheduler deadlineScheduler, AccommodationService accommodationService) {
         this.hostRepository = hostRepository;
         this.accountRepository = accountRepository;
         this.confirmationTokenService = confirmationTokenService;
         this.reservationService = reservationService;
-        this.taskScheduler = taskScheduler;
+        this.deadlineScheduler = deadlineScheduler;
         this.accommodationService = accommodationService;
     }
 
@@ -120,18 +120,10 @@ public class HostServiceImpl implements HostService {
         ConfirmationToken confirmationToken = new ConfirmationToken(token, LocalDateTime.now(), expiration, accountRepository.findById(id).orElseGet(null));
 
         confirmationTokenService.saveConfirmationToken(confirmationToken);
-        Runnable task1 = () -> deleteIfNotActivated(id);
-        this.taskScheduler.schedule(task1, expiration.toInstant(ZoneOffset.UTC));
+        deadlineScheduler.schedule(DeadlineKind.ACCOUNT_ACTIVATION, id, expiration);
         return token;
     }
 
-    private void deleteIfNotActivated(Long accountId) {
-        Account account = accountRepository.findById(accountId).orElse(null);
-        if (!account.isActivated()) {
-            accountRepository.delete(account);
-        }
-    }
-
     @Override
     public HostDto getByEmail(String email) throws ElementNotFoundException {
         Host host = hostRepository.findByEmail(email);
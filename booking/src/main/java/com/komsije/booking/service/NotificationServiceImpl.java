@@ -73,6 +73,18 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     public String saveAndSendNotification(Notification notification) {
         notificationRepository.save(notification);
+        return send(notification);
+    }
+
+    @Override
+    public void saveAndSendNotifications(List<Notification> notifications) {
+        notificationRepository.saveAll(notifications);
+        for (Notification notification : notifications) {
+            send(notification);
+        }
+    }
+
+    private String send(Notification notification) {
         this.simpMessagingTemplate.convertAndSend("/socket-publisher/" + notification.getReceiver().getId(),
                 mapper.toDto(notification));
         // android
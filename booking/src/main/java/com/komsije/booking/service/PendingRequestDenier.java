@@ -0,0 +1,75 @@
+package com.komsije.booking.service;
+
+import com.komsije.booking.model.Account;
+import com.komsije.booking.model.Notification;
+import com.komsije.booking.model.Settings;
+import com.komsije.booking.repository.AccountRepository;
+import com.komsije.booking.repository.ReservationRepository;
+import com.komsije.booking.service.interfaces.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Denies a set of pending requests with one update and notifies their guests as one batch.
+ * Rows are (id, guestId, hostId, ...) projections of the requests to deny, and the
+ * notification reads "Host <email>" followed by the given reason.
+ */
+@Component
+public class PendingRequestDenier {
+    public static final String DENIED_BY_HOST = " has denied your reservation request!";
+    private final ReservationRepository reservationRepository;
+    private final AccountRepository accountRepository;
+    private final NotificationService notificationService;
+
+    @Autowired
+    public PendingRequestDenier(ReservationRepository reservationRepository, AccountRepository accountRepository, NotificationService notificationService) {
+        this.reservationRepository = reservationRepository;
+        this.accountRepository = accountRepository;
+        this.notificationService = notificationService;
+    }
+
+    @Transactional
+    public List<Long> deny(List<Object[]> rows, String reason) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        Set<Long> accountIds = new HashSet<>();
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+            accountIds.add((Long) row[1]);
+            accountIds.add((Long) row[2]);
+        }
+        reservationRepository.denyPending(ids);
+        sendRequestDeniedNotifications(rows, accountIds, reason);
+        return ids;
+    }
+
+    private void sendRequestDeniedNotifications(List<Object[]> rows, Set<Long> accountIds, String reason) {
+        Map<Long, Account> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllById(accountIds)) {
+            accounts.put(account.getId(), account);
+        }
+        List<Notification> notifications = new ArrayList<>();
+        for (Object[] row : rows) {
+            Account guest = accounts.get((Long) row[1]);
+            Account host = accounts.get((Long) row[2]);
+            if (guest != null && host != null && guest.getSettings().contains(Settings.RESERVATION_RESPONSE_NOTIFICATION)) {
+                String mess = "Host " + host.getEmail() + reason;
+                notifications.add(new Notification(null, mess, LocalDateTime.now(), guest));
+            }
+        }
+        if (!notifications.isEmpty()) {
+            notificationService.saveAndSendNotifications(notifications);
+        }
+    }
+}
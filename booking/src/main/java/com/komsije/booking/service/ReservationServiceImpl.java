@@ -2,8 +2,10 @@ package com.komsije.booking.service;
 
 import com.komsije.booking.dto.ReservationDto;
 import com.komsije.booking.dto.ReservationViewDto;
+import com.komsije.booking.config.ReservationOverlapConstraint;
 import com.komsije.booking.exceptions.ElementNotFoundException;
 import com.komsije.booking.exceptions.InvalidTimeSlotException;
+import com.komsije.booking.exceptions.OverlappingReservationException;
 import com.komsije.booking.exceptions.PendingReservationException;
 import com.komsije.booking.exceptions.ReservationAlreadyExistsException;
 import com.komsije.booking.mapper.ReservationMapper;
@@ -13,20 +15,16 @@ import com.komsije.booking.service.interfaces.AccommodationService;
 import com.komsije.booking.service.interfaces.AccountService;
 import com.komsije.booking.service.interfaces.NotificationService;
 import com.komsije.booking.service.interfaces.ReservationService;
-import jakarta.annotation.PostConstruct;
-import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
 import java.time.LocalDate;
 
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 
-import java.util.ArrayList;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -34,21 +32,21 @@ import java.util.logging.Logger;
 @Service
 public class ReservationServiceImpl implements ReservationService {
     private final ReservationMapper mapper;
-    private final TaskScheduler taskScheduler;
     private final ReservationRepository reservationRepository;
     private final AccommodationService accommodationService;
     private final NotificationService notificationService;
     private final AccountService accountService;
+    private final PendingRequestDenier pendingRequestDenier;
     private static final Logger LOG = Logger.getAnonymousLogger();
 
     @Autowired
-    public ReservationServiceImpl(ReservationRepository reservationRepository, AccommodationService accommodationService, ReservationMapper mapper, TaskScheduler taskScheduler, NotificationService notificationService, AccountService accountService) {
+    public ReservationServiceImpl(ReservationRepository reservationRepository, AccommodationService accommodationService, ReservationMapper mapper, NotificationService notificationService, AccountService accountService, PendingRequestDenier pendingRequestDenier) {
         this.reservationRepository = reservationRepository;
         this.accommodationService = accommodationService;
         this.mapper = mapper;
-        this.taskScheduler = taskScheduler;
         this.notificationService = notificationService;
         this.accountService = accountService;
+        this.pendingRequestDenier = pendingRequestDenier;
     }
 
     public ReservationDto findById(Long id) throws ElementNotFoundException {
@@ -66,75 +64,39 @@ public class ReservationServiceImpl implements ReservationService {
 
     @Override
     public List<ReservationViewDto> getByHostId(Long id) {
-        List<Reservation> reservations = this.reservationRepository.findByHostId(id);
-        return mapper.toViewDto(reservations);
+        return reservationRepository.findViewsByHostId(id, EnumSet.allOf(ReservationStatus.class));
     }
 
     @Override
     public List<ReservationViewDto> getByGuestId(Long id) {
-        List<Reservation> reservations = this.reservationRepository.findByGuestId(id);
-        return mapper.toViewDto(reservations);
+        return reservationRepository.findViewsByGuestId(id, EnumSet.allOf(ReservationStatus.class));
     }
 
     @Override
     public List<ReservationViewDto> getRequestsByHostId(Long id) {
-        List<ReservationViewDto> reservations = getByHostId(id);
-        List<ReservationViewDto> requests = new ArrayList<>();
-        for (ReservationViewDto reservation: reservations) {
-            ReservationStatus status = reservation.getReservationStatus();
-            if (status.equals(ReservationStatus.Pending))
-                requests.add(reservation);
-        }
-        return requests;
+        return reservationRepository.findViewsByHostId(id, EnumSet.of(ReservationStatus.Pending));
     }
 
     @Override
     public List<ReservationViewDto> getRequestsByGuestId(Long id) {
-        List<ReservationViewDto> reservations = getByGuestId(id);
-        List<ReservationViewDto> requests = new ArrayList<>();
-        for (ReservationViewDto reservation: reservations) {
-            ReservationStatus status = reservation.getReservationStatus();
-            if (status.equals(ReservationStatus.Pending) || status.equals(ReservationStatus.Approved))
-                requests.add(reservation);
-        }
-        return requests;
+        return reservationRepository.findViewsByGuestId(id, EnumSet.of(ReservationStatus.Pending, ReservationStatus.Approved));
     }
 
     @Override
     public List<ReservationViewDto> getDecidedByHostId(Long id) {
-        List<ReservationViewDto> reservations = getByHostId(id);
-        List<ReservationViewDto> requests = new ArrayList<>();
-        for (ReservationViewDto reservation: reservations) {
-            ReservationStatus status = reservation.getReservationStatus();
-            if (!(status.equals(ReservationStatus.Pending) || status.equals(ReservationStatus.Cancelled) || status.equals(ReservationStatus.Denied)))
-                requests.add(reservation);
-        }
-        return requests;
+        return reservationRepository.findViewsByHostId(id, EnumSet.complementOf(EnumSet.of(ReservationStatus.Pending, ReservationStatus.Cancelled, ReservationStatus.Denied)));
     }
 
     @Override
     public List<ReservationViewDto> getDecidedByGuestId(Long id) {
-        List<ReservationViewDto> reservations = getByGuestId(id);
-        List<ReservationViewDto> requests = new ArrayList<>();
-        for (ReservationViewDto reservation: reservations) {
-            ReservationStatus status = reservation.getReservationStatus();
-            if (!status.equals(ReservationStatus.Pending))
-                requests.add(reservation);
-        }
-        return requests;
+        return reservationRepository.findViewsByGuestId(id, EnumSet.complementOf(EnumSet.of(ReservationStatus.Pending)));
     }
 
     public List<ReservationDto> getByReservationStatus(ReservationStatus reservationStatus){return mapper.toDto(reservationRepository.findReservationsByReservationStatus(reservationStatus));}
 
     @Override
     public boolean hasActiveReservations(Long accountId) {
-        List<Reservation> reservations = reservationRepository.findAll();
-        for (Reservation reservation: reservations){
-            if (reservation.getGuestId().equals(accountId) && reservation.getReservationStatus().equals(ReservationStatus.Active)){
-                return true;
-            }
-        }
-        return false;
+        return reservationRepository.existsByGuestIdAndReservationStatus(accountId, ReservationStatus.Active);
     }
     @Override
     public Integer getCancellationDeadline(Long reservationId){
@@ -143,13 +105,7 @@ public class ReservationServiceImpl implements ReservationService {
     }
     @Override
     public boolean hasHostActiveReservations(Long accountId) {
-        List<Reservation> reservations = reservationRepository.findAll();
-        for (Reservation reservation: reservations){
-            if (reservation.getHostId().equals(accountId) && reservation.getReservationStatus().equals(ReservationStatus.Active)){
-                return true;
-            }
-        }
-        return false;
+        return reservationRepository.existsByHostIdAndReservationStatus(accountId, ReservationStatus.Active);
     }
     @Override
     public void restoreTimeslots(Long reservationId) throws ElementNotFoundException{
@@ -157,17 +113,11 @@ public class ReservationServiceImpl implements ReservationService {
         accommodationService.restoreTimeslot(reservation);
     }
     @Override
-    public boolean overlappingActiveReservationsExist(LocalDate startDate, LocalDate endDate) throws InvalidTimeSlotException {
+    public boolean overlappingActiveReservationsExist(Long accommodationId, LocalDate startDate, LocalDate endDate) throws InvalidTimeSlotException {
         if (startDate.isAfter(endDate)){
             throw new InvalidTimeSlotException("Start date is after end date");
         }
-       List<Reservation> reservations = reservationRepository.findReservationsByReservationStatus(ReservationStatus.Active);
-       for(Reservation reservation: reservations){
-           if (startDate.isBefore(reservation.getStartDate().plusDays(reservation.getDays()))&& reservation.getStartDate().isBefore(endDate)){
-               return true;
-           }
-       }
-        return false;
+        return reservationRepository.existsOverlappingBooked(accommodationId, startDate, endDate);
     }
 
     @Override
@@ -186,7 +136,7 @@ public class ReservationServiceImpl implements ReservationService {
     public ReservationDto updateStatus(Long id, ReservationStatus status) throws ElementNotFoundException {
         Reservation reservation = reservationRepository.findById(id).orElseThrow(() ->  new ElementNotFoundException("Element with given ID doesn't exist!"));
         reservation.setReservationStatus(status);
-        return mapper.toDto(reservationRepository.save(reservation));
+        return mapper.toDto(saveReservation(reservation));
     }
 
     @Override
@@ -194,17 +144,9 @@ public class ReservationServiceImpl implements ReservationService {
         Reservation reservation = reservationRepository.findById(id).orElseThrow(() ->  new ElementNotFoundException("Element with given ID doesn't exist!"));
         if(reservation.getReservationStatus().equals(ReservationStatus.Pending)){
             reservation.setReservationStatus(ReservationStatus.Approved);
-            accommodationService.reserveTimeslot(reservation.getAccommodation().getId(),reservation.getStartDate(), reservation.getStartDate().plusDays(reservation.getDays()));
-            reservationRepository.save(reservation);
-            Runnable task1 = () -> setStatusToActive(reservation);
-            Runnable task2 = () -> setStatusToDone(reservation);
-            Instant endDate = reservation.getStartDate().plusDays(reservation.getDays()).atStartOfDay().toInstant(ZoneOffset.UTC);
-            Instant startDate = reservation.getStartDate().atStartOfDay().toInstant(ZoneOffset.UTC);
-            LOG.log(Level.INFO, "Scheduled task to set reservation "+ reservation.getId() + " to active on " + startDate);
-            LOG.log(Level.INFO, "Scheduled task to set reservation "+ reservation.getId() + " to done on " + endDate);
-            taskScheduler.schedule(task1, startDate);
-            taskScheduler.schedule(task2, endDate);
-            denyOverlappingRequests(reservation.getStartDate(), reservation.getStartDate().plusDays(reservation.getDays()), reservation.getAccommodation().getId());
+            saveReservation(reservation);
+            reserveTimeslotOrRevert(reservation, ReservationStatus.Pending);
+            denyOverlappingRequests(reservation.getStartDate(), reservation.getEndDate(), reservation.getAccommodation().getId());
             sendRequestApprovedNotification(reservation);
         }else{
             throw new PendingReservationException("Reservation is not in pending state!");
@@ -221,54 +163,9 @@ public class ReservationServiceImpl implements ReservationService {
         }
     }
 
-    public void denyOverlappingRequests(LocalDate startDate, LocalDate endDate, Long accommodationId){
-        List<Reservation> reservations = reservationRepository.findPendingByAccommodationId(accommodationId);
-        for(Reservation res: reservations){
-            LocalDate resStartDate = res.getStartDate();
-            LocalDate resEndDate = res.getStartDate().plusDays(res.getDays());
-            if (startDate.isBefore(resEndDate) && resStartDate.isBefore(endDate)){
-                res.setReservationStatus(ReservationStatus.Denied);
-                reservationRepository.save(res);
-            }
-        }
-
-    }
-
-    @SneakyThrows
-    private void setStatusToActive(Reservation reservation){
-
-        if(reservation.getReservationStatus().equals(ReservationStatus.Approved)){
-            if (reservation.getStartDate().plusDays(reservation.getDays()).isBefore(LocalDate.now())){
-                LOG.log(Level.INFO, "Setting status to DONE for reservation:"+ reservation.getId());
-                reservation.setReservationStatus(ReservationStatus.Done);
-                reservationRepository.save(reservation);
-                return;
-            }
-            LOG.log(Level.INFO, "Setting status to ACTIVE for reservation:"+ reservation.getId());
-            reservation.setReservationStatus(ReservationStatus.Active);
-            reservation = reservationRepository.save(reservation);
-
-        }
+    public List<Long> denyOverlappingRequests(LocalDate startDate, LocalDate endDate, Long accommodationId){
+        return pendingRequestDenier.deny(reservationRepository.findPendingOverlapping(accommodationId, startDate, endDate), PendingRequestDenier.DENIED_BY_HOST);
     }
-    @SneakyThrows
-    private void setStatusToDone(Reservation reservation){
-        if (reservation.getReservationStatus().equals(ReservationStatus.Active)){
-            LOG.log(Level.INFO, "Setting status to DONE for reservation:"+ reservation.getId());
-            reservation.setReservationStatus(ReservationStatus.Done);
-            reservation = reservationRepository.save(reservation);
-        }
-    }
-    private void checkIfNotApproved(Reservation reservation){
-        if (reservation.getReservationStatus().equals(ReservationStatus.Pending)){
-            LOG.log(Level.INFO, "Setting status to DENIED for reservation:"+ reservation.getId());
-            reservation.setReservationStatus(ReservationStatus.Denied);
-            LOG.log(Level.INFO, reservation.getReservationStatus().toString());
-
-            reservation = reservationRepository.save(reservation);
-        }
-    }
-
-
 
     @Override
     public boolean denyReservationRequest(Long id) throws ElementNotFoundException, PendingReservationException {
@@ -304,7 +201,7 @@ public class ReservationServiceImpl implements ReservationService {
         Reservation reservation = mapper.fromDto(reservationDto);
         Accommodation accommodation = accommodationService.findModelById(reservationDto.getAccommodationId());
         reservation.setAccommodation(accommodation);
-        reservationRepository.save(reservation);
+        saveReservation(reservation);
         return reservationDto;
     }
 
@@ -317,27 +214,16 @@ public class ReservationServiceImpl implements ReservationService {
         Accommodation accommodation = accommodationService.findModelById(reservationDto.getAccommodationId());
         reservation.setAccommodation(accommodation);
         reservation.setDateCreated(LocalDate.now());
-        reservationRepository.save(reservation);
+        saveReservation(reservation);
         sendNewReservationNotification(reservationDto);
         if (reservation.getReservationStatus().equals(ReservationStatus.Approved) || accommodation.isAutoApproval()) {
-            accommodationService.reserveTimeslot(reservation.getAccommodation().getId(), reservation.getStartDate(), reservation.getStartDate().plusDays(reservation.getDays()));
             reservation.setReservationStatus(ReservationStatus.Approved);
-            Runnable task1 = () -> setStatusToActive(reservation);
-            Runnable task2 = () -> setStatusToDone(reservation);
-            Instant endDate = reservation.getStartDate().plusDays(reservation.getDays()).atStartOfDay().toInstant(ZoneOffset.UTC);
-            Instant startDate = reservation.getStartDate().atStartOfDay().toInstant(ZoneOffset.UTC);
-            LOG.log(Level.INFO, "Scheduled task to set reservation " + reservation.getId() + " to active on " + startDate);
-            LOG.log(Level.INFO, "Scheduled task to set reservation " + reservation.getId() + " to done on " + endDate);
-            taskScheduler.schedule(task1, startDate);
-            taskScheduler.schedule(task2, endDate);
+            saveReservation(reservation);
+            reserveTimeslotOrRevert(reservation, ReservationStatus.Denied);
             sendRequestApprovedNotification(reservation);
         }else{
-            Runnable task = () -> checkIfNotApproved(reservation);
-            LOG.log(Level.INFO, "Scheduled task to set reservation "+ reservation.getId() + " to DENIED if not approved until " + reservation.getStartDate());
-
-            taskScheduler.schedule(task, reservation.getStartDate().atStartOfDay().toInstant(ZoneOffset.UTC));
+            reservationRepository.save(reservation);
         }
-        reservationRepository.save(reservation);
         LOG.log(Level.INFO, "I am leaving");
 
         return mapper.toDto(reservation);
@@ -353,6 +239,36 @@ public class ReservationServiceImpl implements ReservationService {
         }
     }
 
+    /**
+     * Takes the reservation's slots off the calendar. The approval is saved before this runs
+     * in its own transaction, so if the slots can't be taken the reservation is put back in
+     * the given status instead of staying approved over free slots.
+     */
+    private void reserveTimeslotOrRevert(Reservation reservation, ReservationStatus fallback){
+        try {
+            accommodationService.reserveTimeslot(reservation.getAccommodation().getId(), reservation.getStartDate(), reservation.getEndDate());
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not reserve time slots for reservation " + reservation.getId() + ", setting it to " + fallback);
+            reservation.setReservationStatus(fallback);
+            reservationRepository.save(reservation);
+            throw e;
+        }
+    }
+
+    /**
+     * Saves the reservation, turning a rejection by the overlap constraint into a conflict
+     * the client can act on.
+     */
+    private Reservation saveReservation(Reservation reservation){
+        try {
+            return reservationRepository.save(reservation);
+        } catch (DataIntegrityViolationException e) {
+            if (ReservationOverlapConstraint.isViolatedBy(e))
+                throw new OverlappingReservationException("Accommodation is already booked for these dates!");
+            throw e;
+        }
+    }
+
     private boolean doesSameExist(ReservationDto reservationDto){
         List<Reservation> reservations = reservationRepository.getIfExists(reservationDto.getStartDate(), reservationDto.getAccommodationId(),reservationDto.getGuestId());
         return !reservations.isEmpty();
@@ -363,7 +279,7 @@ public class ReservationServiceImpl implements ReservationService {
     public ReservationDto update(ReservationDto reservationDto) throws ElementNotFoundException {
         Reservation reservation = reservationRepository.findById(reservationDto.getId()).orElseThrow(() ->  new ElementNotFoundException("Element with given ID doesn't exist!"));
         mapper.update(reservation, reservationDto);
-        reservationRepository.save(reservation);
+        saveReservation(reservation);
         return reservationDto;
     }
 
@@ -375,18 +291,4 @@ public class ReservationServiceImpl implements ReservationService {
         }
 
     }
-
-    @PostConstruct
-    public void checkOnStartup(){
-        List<Reservation> reservations = reservationRepository.findAll();
-        for (Reservation reservation: reservations){
-            if (reservation.getStartDate().plusDays(reservation.getDays()).isBefore(LocalDate.now())){
-                setStatusToDone(reservation);
-            }
-            if (reservation.getStartDate().isBefore(LocalDate.now())){
-                setStatusToActive(reservation);
-                checkIfNotApproved(reservation);
-            }
-        }
-    }
 }
@@ -0,0 +1,92 @@
+package com.komsije.booking.service;
+
+import com.komsije.booking.model.Account;
+import com.komsije.booking.model.Notification;
+import com.komsije.booking.model.Settings;
+import com.komsije.booking.repository.AccountRepository;
+import com.komsije.booking.repository.ReservationRepository;
+import com.komsije.booking.service.interfaces.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Activates started and finishes ended stays with one update per batch and notifies their
+ * guests as one batch, the same way {@link PendingRequestDenier} handles denials.
+ * Rows are (id, guestId, hostId, ...) projections of the reservations to move.
+ */
+@Component
+public class StayTransitioner {
+    private static final String STARTED = " has started!";
+    private static final String ENDED = " has ended, thank you for staying!";
+    private final ReservationRepository reservationRepository;
+    private final AccountRepository accountRepository;
+    private final NotificationService notificationService;
+
+    @Autowired
+    public StayTransitioner(ReservationRepository reservationRepository, AccountRepository accountRepository, NotificationService notificationService) {
+        this.reservationRepository = reservationRepository;
+        this.accountRepository = accountRepository;
+        this.notificationService = notificationService;
+    }
+
+    @Transactional
+    public List<Long> activate(List<Object[]> rows) {
+        List<Long> ids = idsOf(rows);
+        if (!ids.isEmpty()) {
+            reservationRepository.activateApproved(ids);
+            sendStayNotifications(rows, STARTED);
+        }
+        return ids;
+    }
+
+    @Transactional
+    public List<Long> finish(List<Object[]> rows) {
+        List<Long> ids = idsOf(rows);
+        if (!ids.isEmpty()) {
+            reservationRepository.finishActive(ids);
+            sendStayNotifications(rows, ENDED);
+        }
+        return ids;
+    }
+
+    private List<Long> idsOf(List<Object[]> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        return ids;
+    }
+
+    private void sendStayNotifications(List<Object[]> rows, String event) {
+        Set<Long> accountIds = new HashSet<>();
+        for (Object[] row : rows) {
+            accountIds.add((Long) row[1]);
+            accountIds.add((Long) row[2]);
+        }
+        Map<Long, Account> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllById(accountIds)) {
+            accounts.put(account.getId(), account);
+        }
+        List<Notification> notifications = new ArrayList<>();
+        for (Object[] row : rows) {
+            Account guest = accounts.get((Long) row[1]);
+            Account host = accounts.get((Long) row[2]);
+            if (guest != null && host != null && guest.getSettings().contains(Settings.RESERVATION_RESPONSE_NOTIFICATION)) {
+                String mess = "Your stay with host " + host.getEmail() + event;
+                notifications.add(new Notification(null, mess, LocalDateTime.now(), guest));
+            }
+        }
+        if (!notifications.isEmpty()) {
+            notificationService.saveAndSendNotifications(notifications);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.komsije.booking.exceptions.ElementNotFoundException;
 import com.komsije.booking.model.Accommodation;
 import com.komsije.booking.model.AccommodationType;
 import com.komsije.booking.model.Reservation;
+import com.komsije.booking.search.AmenityFilter;
 import com.komsije.booking.service.interfaces.crud.CrudService;
 
 import java.time.LocalDate;
@@ -19,16 +20,23 @@ public interface AccommodationService extends CrudService<AccommodationDto, Long
 
     public AccommodationDto updateAvailability(Long accommodationId, AvailabilityDto availabilityDto) throws ElementNotFoundException;
     public List<AccommodationDto> getByLocationNumOfGuestsAndDate(String location, Integer numOfGuests, LocalDate startDate, LocalDate endDate);
-    public List<AccommodationDto> getByAmenities(List<String> amenities);
+    public List<AccommodationDto> getByAmenities(AmenityFilter amenityFilter);
     public Accommodation findModelById(Long id) throws ElementNotFoundException;
     public List<HostPropertyDto> findByHostId(Long id);
 
     List<AccommodationShortDto> getAllShort();
 
     public List<SearchResponseDto> getSearchedAccommodations(SearchRequestDto searchRequestDto);
+    public SearchPageDto getSearchedPage(SearchRequestDto searchRequestDto);
+    public List<SearchResponseDto> getTopRanked(SearchRequestDto searchRequestDto, int limit);
+    public SearchCacheStatsDto getSearchCacheStats();
+    public List<CoalescingStatsDto> getCoalescingStats();
+    public List<SearchResponseDto> getAccommodationsOnMap(MapSearchRequestDto mapSearchRequestDto);
+    public List<LocationSuggestionDto> suggestLocations(String prefix);
     public List<HostPropertyDto> getUnapprovedAccommodations();
     public void reserveTimeslot(Long id, LocalDate startDate, LocalDate endDate);
     public PriceResponse getAvailabilityPrice(PriceRequest priceRequest);
+    public List<PriceResponse> getAvailabilityPrices(List<PriceRequest> priceRequests);
     public List<AccommodationAnalysis> getYearAnalytics(Long hostId, int year);
     public List<AccommodationTotalEarnings> getPeriodAnalytics(Long hostId, LocalDate startDate, LocalDate endDate);
 
@@ -11,4 +11,6 @@ public interface NotificationService extends CrudService<NotificationDto, Long>
 
     String saveAndSendNotification(Notification notification);
 
+    void saveAndSendNotifications(List<Notification> notifications);
+
 }
@@ -32,7 +32,7 @@ public interface ReservationService extends CrudService<ReservationDto, Long> {
 
     void restoreTimeslots(Long reservationId);
 
-    public boolean overlappingActiveReservationsExist(LocalDate startDate, LocalDate endDate) throws InvalidTimeSlotException;
+    public boolean overlappingActiveReservationsExist(Long accommodationId, LocalDate startDate, LocalDate endDate) throws InvalidTimeSlotException;
     public boolean deleteRequest(Long id) throws ElementNotFoundException, PendingReservationException;
     public ReservationDto updateStatus(Long id, ReservationStatus status) throws ElementNotFoundException;
     public boolean acceptReservationRequest(Long id) throws ElementNotFoundException, PendingReservationException;
@@ -188,13 +188,13 @@ VALUES (1, null, 4, 'Approved', 6, 'Great host!', '2023-01-05 12:00:00'),
 --        (5, 5);
 
 -- Insert data into the reservation table
-INSERT INTO reservation (days, price, accommodation_id, guest_id, host_id, start_date, reservation_status,
+INSERT INTO reservation (days, price, accommodation_id, guest_id, host_id, start_date, end_date, reservation_status,
                          number_of_guests, date_created)
-VALUES (2, 200.0, 1, 6, 1, '2023-01-05', 'Done', 2, '2023-01-01'),
-       (7, 560.0, 2, 7, 2, '2023-02-06', 'Denied', 1, '2023-01-01'),
-       (10, 1500.0, 3, 8, 3, '2023-03-07', 'Done', 3, '2023-01-01'),
-       (14, 1680.0, 4, 9, 4, '2023-04-08', 'Done', 4, '2023-01-01'),
-       (5, 450.0, 5, 10, 5, '2023-05-01', 'Denied', 3, '2023-01-01');
+VALUES (2, 200.0, 1, 6, 1, '2023-01-05', '2023-01-07', 'Done', 2, '2023-01-01'),
+       (7, 560.0, 2, 7, 2, '2023-02-06', '2023-02-13', 'Denied', 1, '2023-01-01'),
+       (10, 1500.0, 3, 8, 3, '2023-03-07', '2023-03-17', 'Done', 3, '2023-01-01'),
+       (14, 1680.0, 4, 9, 4, '2023-04-08', '2023-04-22', 'Done', 4, '2023-01-01'),
+       (5, 450.0, 5, 10, 5, '2023-05-01', '2023-05-06', 'Denied', 3, '2023-01-01');
 
 /*-- Insert data into the report table
 INSERT INTO report (author_id, date, reported_user_id, reason)
@@ -104,7 +104,7 @@ public class ReservationControllerTest {
 
     @Test
     @Rollback
-    public void saveNewReservation_ShouldSaveActive_ApprovedReservation(){
+    public void saveNewReservation_ShouldSaveApproved_ApprovedReservationStartingToday(){
         LocalDate startDate = LocalDate.of(2024,2,3);
         ReservationDto reservationDto = new ReservationDto(null, LocalDate.now(), LocalDate.now(), 3, 300, ReservationStatus.Approved, 1L, 6L, 1L, 3);
         ResponseEntity<ReservationDto> responseEntity = restTemplate.exchange("/api/reservations",
@@ -115,13 +115,13 @@ public class ReservationControllerTest {
         assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
         ReservationDto returnedReservation = responseEntity.getBody();
         assertThat(reservationDto).usingRecursiveComparison().ignoringFields("id", "reservationStatus").isEqualTo(returnedReservation);
-        assertEquals(returnedReservation.getReservationStatus(), ReservationStatus.Active);
+        assertEquals(returnedReservation.getReservationStatus(), ReservationStatus.Approved);
     }
 
 
     @Test
     @Rollback
-    public void saveNewReservation_ShouldSaveDenied_ApprovedReservation(){
+    public void saveNewReservation_ShouldSavePending_PendingReservationStartingToday(){
         LocalDate startDate = LocalDate.of(2024,2,3);
         ReservationDto reservationDto = new ReservationDto(null, LocalDate.now(), LocalDate.now(), 3, 300, ReservationStatus.Pending, 2L, 6L, 1L, 3);
         ResponseEntity<ReservationDto> responseEntity = restTemplate.exchange("/api/reservations",
@@ -132,7 +132,7 @@ public class ReservationControllerTest {
         assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
         ReservationDto returnedReservation = responseEntity.getBody();
         assertThat(reservationDto).usingRecursiveComparison().ignoringFields("id", "reservationStatus").isEqualTo(returnedReservation);
-        assertEquals(returnedReservation.getReservationStatus(), ReservationStatus.Denied);
+        assertEquals(returnedReservation.getReservationStatus(), ReservationStatus.Pending);
     }
 
 
@@ -0,0 +1,109 @@
+package com.komsije.booking.repository;
+
+import com.komsije.booking.model.AccommodationListing;
+import com.komsije.booking.search.ListingProjector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+public class AccommodationListingRepositoryTest {
+    @Autowired
+    private AccommodationListingRepository listingRepository;
+
+    @BeforeEach
+    public void setUp(){
+        new ListingProjector(listingRepository).rebuild();
+    }
+
+    @Test
+    public void rebuild_ShouldProjectEveryAccommodation(){
+        assertThat(listingRepository.findAll()).extracting(AccommodationListing::getId).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        AccommodationListing listing = listingRepository.findById(1L).orElseThrow();
+        assertThat(listing.getCityKey()).isEqualTo("city1");
+        assertThat(ListingProjector.getAmenities(listing)).containsExactlyInAnyOrder("WiFi", "TV", "Kitchen");
+        assertThat(ListingProjector.getPhotos(listing)).containsExactlyInAnyOrder("ap1.jpg", "ap2.jpg", "ap3.jpg", "room1_2.jpg");
+    }
+
+    @Test
+    public void rebuild_ShouldKeepRows_ListingsUpToDate(){
+        AccommodationListing listing = listingRepository.findById(1L).orElseThrow();
+        listing.setName("Renamed");
+        listingRepository.saveAndFlush(listing);
+
+        new ListingProjector(listingRepository).rebuild();
+
+        assertThat(listingRepository.findById(1L).orElseThrow().getName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    public void rebuild_ShouldReproject_ListingWrittenByOlderVersion(){
+        AccommodationListing listing = listingRepository.findById(1L).orElseThrow();
+        String name = listing.getName();
+        listing.setName("Renamed");
+        listing.setProjectionVersion(listing.getProjectionVersion() - 1);
+        listingRepository.saveAndFlush(listing);
+
+        new ListingProjector(listingRepository).rebuild();
+
+        assertThat(listingRepository.findById(1L).orElseThrow().getName()).isEqualTo(name);
+    }
+
+    @Test
+    public void search_ShouldMatchCityIgnoringCase(){
+        List<AccommodationListing> listings = listingRepository.search("city1", 2);
+        assertThat(listings).extracting(AccommodationListing::getId).containsExactly(1L);
+    }
+
+    @Test
+    public void search_ShouldIgnoreGuestBounds_NoGuestsGiven(){
+        List<AccommodationListing> listings = listingRepository.search("City1", 0);
+        assertThat(listings).extracting(AccommodationListing::getId).containsExactly(1L);
+    }
+
+    @Test
+    public void search_ShouldReturnEmpty_TooManyGuests(){
+        assertThat(listingRepository.search("City1", 5)).isEmpty();
+    }
+
+    @Test
+    public void search_ShouldReturnEmpty_AccommodationNotActive(){
+        assertThat(listingRepository.search("City4", 4)).isEmpty();
+    }
+
+    @Test
+    public void searchAfterGrade_ShouldSkipRowsUpToCursor(){
+        List<AccommodationListing> firstPage = listingRepository.searchAfterGrade("City1", 2, Double.MAX_VALUE, 0L, PageRequest.of(0, 10));
+        assertThat(firstPage).extracting(AccommodationListing::getId).containsExactly(1L);
+        List<AccommodationListing> secondPage = listingRepository.searchAfterGrade("City1", 2, firstPage.get(0).getAverageGrade(), 1L, PageRequest.of(0, 10));
+        assertThat(secondPage).isEmpty();
+    }
+
+    @Test
+    public void searchAfterGrade_ShouldKeepAccommodationWithoutReviews(){
+        AccommodationListing listing = listingRepository.findById(1L).orElseThrow();
+        listing.setAverageGrade(0);
+        listing.setReviewCount(0);
+        listingRepository.saveAndFlush(listing);
+
+        List<AccommodationListing> firstPage = listingRepository.searchAfterGrade("City1", 2, Double.MAX_VALUE, 0L, PageRequest.of(0, 10));
+        assertThat(firstPage).extracting(AccommodationListing::getId).containsExactly(1L);
+        assertThat(listingRepository.searchAfterGrade("City1", 2, 0, 1L, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    public void searchByIds_ShouldApplyStatusCondition(){
+        List<AccommodationListing> listings = listingRepository.searchByIds(List.of(1L, 4L), 2);
+        assertThat(listings).extracting(AccommodationListing::getId).containsExactly(1L);
+    }
+}
@@ -0,0 +1,57 @@
+package com.komsije.booking.repository;
+
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.TimeSlot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+public class AccommodationRepositoryTest {
+    @Autowired
+    private AccommodationRepository accommodationRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void findAmenities_ShouldReturnOneRowPerAmenity(){
+        List<Object[]> rows = accommodationRepository.findAmenities();
+        assertThat(rows).hasSize(15);
+        assertThat(rows).filteredOn(row -> row[0].equals(1L)).extracting(row -> row[1]).containsExactlyInAnyOrder("WiFi", "TV", "Kitchen");
+    }
+
+    @Test
+    public void findActiveLocations_ShouldSkipInactiveAccommodations(){
+        List<Object[]> rows = accommodationRepository.findActiveLocations();
+        assertThat(rows).extracting(row -> row[0]).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    public void findFreeSlots_ShouldReturnVersionWithEveryFreeSlot(){
+        List<Object[]> rows = accommodationRepository.findFreeSlots(List.of(1L, 2L));
+        assertThat(rows).hasSize(4);
+        assertThat(rows).allSatisfy(row -> assertThat(row[1]).isEqualTo(0L));
+        assertThat(rows).filteredOn(row -> row[0].equals(1L)).extracting(row -> ((TimeSlot) row[2]).getPrice()).containsExactlyInAnyOrder(100.0, 110.0);
+    }
+
+    @Test
+    public void findFreeSlots_ShouldReturnVersion_NoFreeSlots(){
+        Accommodation accommodation = accommodationRepository.findById(5L).orElseThrow();
+        accommodation.getAvailability().forEach(slot -> slot.setOccupied(true));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Object[]> rows = accommodationRepository.findFreeSlots(List.of(5L));
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)[2]).isNull();
+    }
+}
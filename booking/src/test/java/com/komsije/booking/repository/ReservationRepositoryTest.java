@@ -1,15 +1,22 @@
 package com.komsije.booking.repository;
 
+import com.komsije.booking.dto.ReservationViewDto;
 import com.komsije.booking.model.Accommodation;
 import com.komsije.booking.model.Reservation;
 import com.komsije.booking.model.ReservationStatus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -108,5 +115,124 @@ public class ReservationRepositoryTest {
 
     }
 
+    @Test
+    public void existsOverlappingBooked_ShouldOnlyMatchOverlapOnSameAccommodation(){
+        assertThat(reservationRepository.existsOverlappingBooked(1L, LocalDate.of(2023, 1, 6), LocalDate.of(2023, 1, 9))).isTrue();
+        assertThat(reservationRepository.existsOverlappingBooked(1L, LocalDate.of(2023, 1, 7), LocalDate.of(2023, 1, 9))).isFalse();
+        assertThat(reservationRepository.existsOverlappingBooked(1L, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 5))).isFalse();
+        assertThat(reservationRepository.existsOverlappingBooked(2L, LocalDate.of(2023, 1, 6), LocalDate.of(2023, 1, 9))).isFalse();
+    }
+
+    @Test
+    public void save_ShouldKeepEndDateInStepWithStay(){
+        Reservation reservation = reservationRepository.save(new Reservation(null, LocalDate.of(2099, 1, 30), LocalDate.now(), 3, 3, 300, 1L, 6L, null, ReservationStatus.Pending));
+        reservation.setDays(5);
+        reservationRepository.saveAndFlush(reservation);
+
+        assertThat(reservationRepository.findById(reservation.getId()).orElseThrow().getEndDate()).isEqualTo(LocalDate.of(2099, 2, 4));
+    }
+
+    @Test
+    public void sweepUpdates_ShouldMoveStartedAndEndedReservations(){
+        LocalDate today = LocalDate.of(2099, 6, 10);
+        Reservation started = reservationRepository.save(new Reservation(null, today.minusDays(1), today.minusDays(20), 3, 3, 300, 1L, 6L, null, ReservationStatus.Approved));
+        Reservation ended = reservationRepository.save(new Reservation(null, today.minusDays(5), today.minusDays(20), 3, 3, 300, 1L, 6L, null, ReservationStatus.Active));
+        Reservation upcoming = reservationRepository.save(new Reservation(null, today.plusDays(1), today.minusDays(20), 3, 3, 300, 1L, 6L, null, ReservationStatus.Approved));
+
+        List<Object[]> toActivate = reservationRepository.findStartedApproved(today, PageRequest.of(0, 100));
+        List<Object[]> toFinish = reservationRepository.findEndedActive(today, PageRequest.of(0, 100));
+        assertThat(toActivate).extracting(row -> row[0]).contains(started.getId()).doesNotContain(upcoming.getId(), ended.getId());
+        assertThat(toFinish).extracting(row -> row[0]).contains(ended.getId()).doesNotContain(started.getId(), upcoming.getId());
+
+        reservationRepository.activateApproved(List.of(started.getId(), ended.getId()));
+        reservationRepository.finishActive(List.of(ended.getId()));
+
+        assertThat(reservationRepository.findById(started.getId()).orElseThrow().getReservationStatus()).isEqualTo(ReservationStatus.Active);
+        assertThat(reservationRepository.findById(ended.getId()).orElseThrow().getReservationStatus()).isEqualTo(ReservationStatus.Done);
+        assertThat(reservationRepository.findById(upcoming.getId()).orElseThrow().getReservationStatus()).isEqualTo(ReservationStatus.Approved);
+    }
+
+    @Test
+    public void denyPending_ShouldOnlyDenyExpiredPendingRequests(){
+        LocalDate today = LocalDate.of(2099, 6, 10);
+        Reservation expired = reservationRepository.save(new Reservation(null, today, today.minusDays(20), 3, 3, 300, 1L, 6L, null, ReservationStatus.Pending));
+        Reservation upcoming = reservationRepository.save(new Reservation(null, today.plusDays(1), today.minusDays(20), 3, 3, 300, 1L, 6L, null, ReservationStatus.Pending));
+
+        List<Long> ids = reservationRepository.findExpiredPending(today, PageRequest.of(0, 100)).stream().map(row -> (Long) row[0]).toList();
+        assertThat(ids).contains(expired.getId()).doesNotContain(upcoming.getId());
+        reservationRepository.denyPending(ids);
+
+        assertThat(reservationRepository.findById(expired.getId()).orElseThrow().getReservationStatus()).isEqualTo(ReservationStatus.Denied);
+        assertThat(reservationRepository.findById(upcoming.getId()).orElseThrow().getReservationStatus()).isEqualTo(ReservationStatus.Pending);
+    }
+
+    @Test
+    public void existsByGuestIdAndReservationStatus_ShouldOnlyMatchGivenStatus(){
+        reservationRepository.save(new Reservation(null, LocalDate.now(), LocalDate.now(), 3, 3, 300, 901L, 902L, null, ReservationStatus.Active));
+        reservationRepository.save(new Reservation(null, LocalDate.now(), LocalDate.now(), 3, 3, 300, 903L, 904L, null, ReservationStatus.Done));
+
+        assertThat(reservationRepository.existsByGuestIdAndReservationStatus(902L, ReservationStatus.Active)).isTrue();
+        assertThat(reservationRepository.existsByHostIdAndReservationStatus(901L, ReservationStatus.Active)).isTrue();
+        assertThat(reservationRepository.existsByGuestIdAndReservationStatus(904L, ReservationStatus.Active)).isFalse();
+        assertThat(reservationRepository.existsByHostIdAndReservationStatus(903L, ReservationStatus.Active)).isFalse();
+    }
+
+    @Test
+    public void findDoneQueries_ShouldMatchYearRangeAndEitherRole(){
+        Accommodation accommodation = new Accommodation();
+        accommodation.setId(1L);
+        Reservation lastDay = reservationRepository.save(new Reservation(null, LocalDate.of(2031, 12, 31), LocalDate.now(), 3, 3, 300, 901L, 902L, accommodation, ReservationStatus.Done));
+        Reservation nextYear = reservationRepository.save(new Reservation(null, LocalDate.of(2032, 1, 1), LocalDate.now(), 3, 3, 300, 902L, 901L, accommodation, ReservationStatus.Done));
+
+        assertThat(reservationRepository.findDoneByAccommodationAndYear(1L, 2031)).extracting(Reservation::getId).containsExactly(lastDay.getId());
+        assertThat(reservationRepository.findDoneByHostIdAndGuestId(901L, 902L)).extracting(Reservation::getId).containsExactlyInAnyOrder(lastDay.getId(), nextYear.getId());
+    }
+
+    @Test
+    public void findViewsByHostId_ShouldProjectJoinedColumns(){
+        List<ReservationViewDto> views = reservationRepository.findViewsByHostId(2L, EnumSet.allOf(ReservationStatus.class));
+
+        assertThat(views).hasSize(1);
+        ReservationViewDto view = views.get(0);
+        assertThat(view.getStartDate()).isEqualTo(LocalDate.of(2023, 2, 6).atStartOfDay());
+        assertThat(view.getEndDate()).isEqualTo(LocalDate.of(2023, 2, 13).atStartOfDay());
+        assertThat(view.getAccommodationId()).isEqualTo(2L);
+        assertThat(view.getGuestId()).isEqualTo(7L);
+        assertThat(view.getGuestEmail()).isNotBlank();
+        assertThat(view.getHostEmail()).isNotBlank();
+        assertThat(view.getGuestTimesCancelled()).isEqualTo(1);
+        assertThat(view.getReservationStatus()).isEqualTo(ReservationStatus.Pending);
+    }
+
+    @Test
+    public void findViewsByGuestId_ShouldFilterByStatus(){
+        assertThat(reservationRepository.findViewsByGuestId(6L, EnumSet.of(ReservationStatus.Approved))).extracting(ReservationViewDto::getHostId).containsExactly(1L);
+        assertThat(reservationRepository.findViewsByGuestId(6L, EnumSet.of(ReservationStatus.Pending))).isEmpty();
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDateRanges")
+    public void findPendingOverlapping_ShouldMatchOverlappingStays(int start, int end, int overlap){
+        Accommodation accommodation = new Accommodation();
+        accommodation.setId(2L);
+        // approved stay is from day 10 to day 20, the pending request from start to end
+        LocalDate date = LocalDate.of(2099, 1, 1);
+        Reservation pending = reservationRepository.save(new Reservation(null, date.plusDays(start), LocalDate.now(), end - start, 3, 300, 1L, 6L, accommodation, ReservationStatus.Pending));
+
+        List<Long> ids = reservationRepository.findPendingOverlapping(2L, date.plusDays(10), date.plusDays(20)).stream().map(row -> (Long) row[0]).toList();
 
+        if (overlap == 1) {
+            assertThat(ids).containsExactly(pending.getId());
+        } else {
+            assertThat(ids).isEmpty();
+        }
+    }
+
+    private static Collection provideDateRanges() {
+        return Arrays.asList(
+                new Integer[][]{
+                        {9, 15, 1}, {8, 11, 1}, {12, 21, 1}, {12, 18, 1}, {3, 4, 0}, {21, 22, 0}, {10, 20, 1}, {8, 10, 0}, {20, 21, 0}
+                }
+        );
+    }
 }
@@ -0,0 +1,51 @@
+package com.komsije.booking.scheduling;
+
+import com.komsije.booking.model.Account;
+import com.komsije.booking.repository.AccountRepository;
+import com.komsije.booking.repository.ConfirmationTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+public class DeadlineSchedulerTest {
+    private AccountRepository accountRepository;
+    private DeadlineScheduler deadlineScheduler;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        deadlineScheduler = new DeadlineScheduler(accountRepository, mock(ConfirmationTokenRepository.class));
+    }
+
+    @Test
+    public void tick_ShouldDeleteAccountsNotActivated() {
+        Account account = new Account();
+        when(accountRepository.findAllById(anyIterable())).thenReturn(List.of(account));
+        deadlineScheduler.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 1L, LocalDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+
+        deadlineScheduler.tick();
+
+        verify(accountRepository).deleteAll(List.of(account));
+        assertThat(deadlineScheduler.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void tick_ShouldKeepDeadlines_DeleteFailed() {
+        when(accountRepository.findAllById(anyIterable())).thenThrow(new DataAccessResourceFailureException("Database is down"));
+        deadlineScheduler.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 1L, LocalDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+        deadlineScheduler.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 2L, LocalDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+
+        deadlineScheduler.tick();
+
+        assertThat(deadlineScheduler.getPendingCount()).isEqualTo(2);
+        verify(accountRepository, never()).deleteAll(anyIterable());
+    }
+}
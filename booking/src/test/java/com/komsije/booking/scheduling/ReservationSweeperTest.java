@@ -0,0 +1,93 @@
+package com.komsije.booking.scheduling;
+
+import com.komsije.booking.repository.ReservationRepository;
+import com.komsije.booking.service.PendingRequestDenier;
+import com.komsije.booking.service.StayTransitioner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReservationSweeperTest {
+    private final LocalDate today = LocalDate.of(2024, 3, 1);
+    private ReservationRepository reservationRepository;
+    private PendingRequestDenier pendingRequestDenier;
+    private StayTransitioner stayTransitioner;
+    private TaskScheduler taskScheduler;
+    private ReservationSweeper sweeper;
+
+    @BeforeEach
+    public void setUp() {
+        reservationRepository = mock(ReservationRepository.class);
+        pendingRequestDenier = mock(PendingRequestDenier.class);
+        stayTransitioner = mock(StayTransitioner.class);
+        taskScheduler = mock(TaskScheduler.class);
+        sweeper = new ReservationSweeper(reservationRepository, pendingRequestDenier, stayTransitioner, taskScheduler, true);
+    }
+
+    @Test
+    public void sweep_ShouldDenyExpiredRequestsPageByPage() {
+        List<Object[]> firstPage = new ArrayList<>();
+        firstPage.add(new Object[]{1L, 6L, 2L});
+        firstPage.add(new Object[]{2L, 7L, 2L});
+        List<Object[]> secondPage = new ArrayList<>();
+        secondPage.add(new Object[]{3L, 8L, 2L});
+        when(reservationRepository.findExpiredPending(eq(today), any(Pageable.class))).thenReturn(firstPage, secondPage, List.of());
+        when(pendingRequestDenier.deny(eq(firstPage), anyString())).thenReturn(List.of(1L, 2L));
+        when(pendingRequestDenier.deny(eq(secondPage), anyString())).thenReturn(List.of(3L));
+
+        ReservationSweeper.SweepResult result = sweeper.sweep(today);
+
+        assertEquals(new ReservationSweeper.SweepResult(3, 0, 0), result);
+        verify(pendingRequestDenier, times(2)).deny(any(), anyString());
+    }
+
+    @Test
+    public void sweep_ShouldActivateAndFinishStaysThroughTransitioner() {
+        List<Object[]> started = new ArrayList<>();
+        started.add(new Object[]{4L, 6L, 2L});
+        started.add(new Object[]{5L, 7L, 2L});
+        List<Object[]> ended = new ArrayList<>();
+        ended.add(new Object[]{6L, 8L, 2L});
+        when(reservationRepository.findExpiredPending(eq(today), any(Pageable.class))).thenReturn(List.of());
+        when(reservationRepository.findStartedApproved(eq(today), any(Pageable.class))).thenReturn(started, List.of());
+        when(reservationRepository.findEndedActive(eq(today), any(Pageable.class))).thenReturn(ended, List.of());
+        when(stayTransitioner.activate(started)).thenReturn(List.of(4L, 5L));
+        when(stayTransitioner.finish(ended)).thenReturn(List.of(6L));
+
+        ReservationSweeper.SweepResult result = sweeper.sweep(today);
+
+        assertEquals(new ReservationSweeper.SweepResult(0, 2, 1), result);
+        verify(stayTransitioner).activate(started);
+        verify(stayTransitioner).finish(ended);
+    }
+
+    @Test
+    public void sweep_ShouldSkipDenial_NoExpiredRequests() {
+        when(reservationRepository.findExpiredPending(eq(today), any(Pageable.class))).thenReturn(List.of());
+
+        ReservationSweeper.SweepResult result = sweeper.sweep(today);
+
+        assertEquals(0, result.total());
+        verifyNoInteractions(pendingRequestDenier);
+    }
+
+    @Test
+    public void reconcileOnStartup_ShouldRunInBackground() {
+        sweeper.reconcileOnStartup();
+
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        verifyNoInteractions(reservationRepository);
+    }
+}
@@ -0,0 +1,71 @@
+package com.komsije.booking.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TimingWheelTest {
+    private final long start = 1_700_000_000L;
+
+    @Test
+    public void advanceTo_ShouldFireDeadlinesOnTheirSecond() {
+        TimingWheel wheel = new TimingWheel(start);
+        wheel.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 1L, start + 5);
+        wheel.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 2L, start + 5);
+        wheel.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 3L, start + 6);
+
+        assertThat(wheel.advanceTo(start + 4)).isEmpty();
+        assertThat(wheel.advanceTo(start + 5)).extracting(Deadline::entityId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(wheel.advanceTo(start + 6)).extracting(Deadline::entityId).containsExactly(3L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void advanceTo_ShouldCascadeDeadlinesFromUpperLevels() {
+        TimingWheel wheel = new TimingWheel(start);
+        long[] offsets = {63, 64, 65, 4_095, 4_096, 86_400, 300_000};
+        for (long offset : offsets) {
+            wheel.schedule(DeadlineKind.ACCOUNT_ACTIVATION, offset, start + offset);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long second = start + 1; second <= start + 300_000; second++) {
+            for (Deadline deadline : wheel.advanceTo(second)) {
+                assertThat(deadline.epochSecond()).isEqualTo(second);
+                fired.add(deadline.entityId());
+            }
+        }
+
+        assertThat(fired).containsExactly(63L, 64L, 65L, 4_095L, 4_096L, 86_400L, 300_000L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void advanceTo_ShouldFireOverdueDeadlinesOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(start);
+        wheel.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 1L, start - 100);
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advanceTo(start)).extracting(Deadline::entityId).containsExactly(1L);
+    }
+
+    @Test
+    public void advanceTo_ShouldCatchUpAfterSkippedTicks() {
+        TimingWheel wheel = new TimingWheel(start);
+        wheel.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 1L, start + 10);
+        wheel.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 2L, start + 5_000);
+
+        assertThat(wheel.advanceTo(start + 6_000)).extracting(Deadline::entityId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void schedule_ShouldRejectDeadlineBeyondTheWheel() {
+        TimingWheel wheel = new TimingWheel(start);
+        assertThatThrownBy(() -> wheel.schedule(DeadlineKind.ACCOUNT_ACTIVATION, 1L, start + (1L << 40)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.TimeSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccommodationCalendarTest {
+    private final LocalDate referenceDate = LocalDate.now().plusDays(10);
+    private List<TimeSlot> availability;
+
+    @BeforeEach
+    public void setUp() {
+        availability = new ArrayList<>();
+        availability.addAll(Arrays.asList(new TimeSlot(1L, referenceDate, referenceDate.plusDays(10), 200, false),          // 0 - 10
+                new TimeSlot(2L, referenceDate.plusDays(10), referenceDate.plusDays(15), 300, false),           // 10 - 15
+                new TimeSlot(4L, referenceDate.plusDays(23), referenceDate.plusDays(30), 300, false),          // 23 - 30
+                new TimeSlot(3L, referenceDate.plusDays(15), referenceDate.plusDays(20), 400, true)));        // 15 - 20
+    }
+
+    @Test
+    public void covers_ShouldReturnTrue_RangeSpansAdjacentFreeSlots() {
+        AccommodationCalendar calendar = AccommodationCalendar.of(availability);
+        assertTrue(calendar.covers(referenceDate.plusDays(5), referenceDate.plusDays(15)));
+        assertTrue(calendar.covers(referenceDate.plusDays(23), referenceDate.plusDays(30)));
+    }
+
+    @Test
+    public void covers_ShouldReturnFalse_RangeTouchesOccupiedOrMissingDays() {
+        AccommodationCalendar calendar = AccommodationCalendar.of(availability);
+        assertFalse(calendar.covers(referenceDate.plusDays(12), referenceDate.plusDays(16)));
+        assertFalse(calendar.covers(referenceDate.plusDays(21), referenceDate.plusDays(24)));
+        assertFalse(calendar.covers(referenceDate.minusDays(1), referenceDate.plusDays(2)));
+        assertFalse(calendar.covers(referenceDate.plusDays(2), referenceDate.plusDays(2)));
+    }
+
+    @Test
+    public void price_ShouldSumNightlyPricesAcrossSlots() {
+        AccommodationCalendar calendar = AccommodationCalendar.of(availability);
+        assertEquals(3 * 200 + 2 * 300, calendar.price(referenceDate.plusDays(7), referenceDate.plusDays(12)));
+        assertEquals(2 * 300, calendar.price(referenceDate.plusDays(23), referenceDate.plusDays(25)));
+    }
+
+    @Test
+    public void price_ShouldSkipOccupiedAndMissingDays() {
+        AccommodationCalendar calendar = AccommodationCalendar.of(availability);
+        assertEquals(2 * 300 + 2 * 300, calendar.price(referenceDate.plusDays(13), referenceDate.plusDays(25)));
+        assertEquals(2 * 200, calendar.price(referenceDate.minusDays(3), referenceDate.plusDays(2)));
+        assertEquals(0, calendar.price(referenceDate.plusDays(31), referenceDate.plusDays(40)));
+        assertEquals(0, AccommodationCalendar.of(new ArrayList<>()).price(referenceDate, referenceDate.plusDays(2)));
+    }
+
+    @Test
+    public void covers_ShouldCheckRangesSpanningSeveralWords() {
+        List<TimeSlot> longAvailability = Arrays.asList(new TimeSlot(1L, referenceDate, referenceDate.plusDays(130), 100, false),
+                new TimeSlot(2L, referenceDate.plusDays(130), referenceDate.plusDays(131), 100, true),
+                new TimeSlot(3L, referenceDate.plusDays(131), referenceDate.plusDays(200), 100, false));
+        AccommodationCalendar calendar = AccommodationCalendar.of(longAvailability);
+        assertTrue(calendar.covers(referenceDate.plusDays(1), referenceDate.plusDays(130)));
+        assertTrue(calendar.covers(referenceDate.plusDays(63), referenceDate.plusDays(65)));
+        assertTrue(calendar.covers(referenceDate.plusDays(131), referenceDate.plusDays(200)));
+        assertFalse(calendar.covers(referenceDate.plusDays(60), referenceDate.plusDays(140)));
+        assertFalse(calendar.covers(referenceDate.plusDays(150), referenceDate.plusDays(201)));
+    }
+
+    @Test
+    public void cheapestStay_ShouldPickCheapestFreeWindowWithinFlexibleDays() {
+        AccommodationCalendar calendar = AccommodationCalendar.of(availability);
+        Stay stay = calendar.cheapestStay(referenceDate.plusDays(12), 3, 3);
+        assertEquals(referenceDate.plusDays(9), stay.startDate());
+        assertEquals(referenceDate.plusDays(12), stay.endDate());
+        assertEquals(200 + 2 * 300, stay.price());
+        assertEquals(referenceDate.plusDays(8), calendar.cheapestStay(referenceDate.plusDays(12), 3, 4).startDate());
+        assertEquals(referenceDate.plusDays(23), calendar.cheapestStay(referenceDate.plusDays(20), 3, 3).startDate());
+    }
+
+    @Test
+    public void cheapestStay_ShouldReturnNull_NoFreeWindow() {
+        AccommodationCalendar calendar = AccommodationCalendar.of(availability);
+        assertNull(calendar.cheapestStay(referenceDate.plusDays(17), 3, 2));
+        assertNull(calendar.cheapestStay(referenceDate.plusDays(2), 40, 5));
+    }
+}
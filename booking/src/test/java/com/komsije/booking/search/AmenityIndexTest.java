@@ -0,0 +1,59 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.repository.AccommodationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class AmenityIndexTest {
+    private AccommodationRepository accommodationRepository;
+    private AmenityIndex amenityIndex;
+
+    @BeforeEach
+    public void setUp() {
+        accommodationRepository = mock(AccommodationRepository.class);
+        when(accommodationRepository.findAmenities()).thenReturn(Arrays.asList(
+                new Object[]{1L, "WiFi"}, new Object[]{1L, "TV"}, new Object[]{1L, "Kitchen"},
+                new Object[]{2L, "WiFi"}, new Object[]{2L, "Parking"},
+                new Object[]{3L, null}));
+        amenityIndex = new AmenityIndex(accommodationRepository);
+    }
+
+    @Test
+    public void findMatching_ShouldRequireEveryAmenity_AllOf() {
+        assertThat(amenityIndex.findMatching(AmenityFilter.of(List.of("WiFi", "TV"), null, null))).containsExactly(1L);
+        assertThat(amenityIndex.findMatching(AmenityFilter.of(List.of("WiFi", "Pool"), null, null))).isEmpty();
+    }
+
+    @Test
+    public void findMatching_ShouldRequireOneAmenity_AnyOf() {
+        assertThat(amenityIndex.findMatching(AmenityFilter.of(null, List.of("TV", "Parking", "Pool"), null))).containsExactly(1L, 2L);
+        assertThat(amenityIndex.findMatching(AmenityFilter.of(null, List.of("Pool"), null))).isEmpty();
+    }
+
+    @Test
+    public void findMatching_ShouldExcludeAmenities_NoneOf() {
+        assertThat(amenityIndex.findMatching(AmenityFilter.of(null, null, List.of("TV", "Pool")))).containsExactly(2L, 3L);
+        assertThat(amenityIndex.findMatching(AmenityFilter.of(List.of("WiFi"), null, List.of("Kitchen")))).containsExactly(2L);
+    }
+
+    @Test
+    public void refresh_ShouldReplaceAmenities_AccommodationUpdated() {
+        amenityIndex.findMatching(AmenityFilter.NONE);
+        Accommodation accommodation = new Accommodation();
+        accommodation.setId(3L);
+        accommodation.setAmenities(Set.of("Pool", "WiFi"));
+        amenityIndex.refresh(accommodation);
+
+        assertThat(amenityIndex.matches(3L, AmenityFilter.of(List.of("Pool", "WiFi"), null, null))).isTrue();
+        assertThat(amenityIndex.matches(1L, AmenityFilter.of(List.of("Pool"), null, null))).isFalse();
+        verify(accommodationRepository, times(1)).findAmenities();
+    }
+}
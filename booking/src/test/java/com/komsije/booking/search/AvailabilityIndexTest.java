@@ -0,0 +1,60 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.TimeSlot;
+import com.komsije.booking.repository.AccommodationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class AvailabilityIndexTest {
+    private final LocalDate start = LocalDate.of(2024, 3, 1);
+    private AccommodationRepository accommodationRepository;
+    private AvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    public void setUp() {
+        accommodationRepository = mock(AccommodationRepository.class);
+        availabilityIndex = new AvailabilityIndex(accommodationRepository);
+    }
+
+    @Test
+    public void isAvailable_ShouldKeepNewerCalendar_LoadReadBeforeChange() {
+        Accommodation changed = new Accommodation();
+        changed.setId(1L);
+        changed.setVersion(2);
+        changed.setAvailability(new ArrayList<>(List.of(new TimeSlot(1L, start, start.plusDays(10), 100, true))));
+        when(accommodationRepository.findFreeSlots(anyCollection())).thenAnswer(invocation -> {
+            // the booking commits and refreshes the index while the stale load is running
+            availabilityIndex.refresh(changed);
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{1L, 1L, new TimeSlot(1L, start, start.plusDays(10), 100, false)});
+            return rows;
+        });
+
+        assertThat(availabilityIndex.isAvailable(1L, start, start.plusDays(2))).isFalse();
+        assertThat(availabilityIndex.isAvailable(1L, start, start.plusDays(2))).isFalse();
+        verify(accommodationRepository, times(1)).findFreeSlots(anyCollection());
+    }
+
+    @Test
+    public void preload_ShouldIndexAccommodationWithoutFreeSlots() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 0L, new TimeSlot(1L, start, start.plusDays(10), 100, false)});
+        rows.add(new Object[]{2L, 0L, null});
+        when(accommodationRepository.findFreeSlots(anyCollection())).thenReturn(rows);
+
+        availabilityIndex.preload(List.of(1L, 2L));
+
+        assertThat(availabilityIndex.isAvailable(1L, start, start.plusDays(2))).isTrue();
+        assertThat(availabilityIndex.isAvailable(2L, start, start.plusDays(2))).isFalse();
+        verify(accommodationRepository, times(1)).findFreeSlots(anyCollection());
+    }
+}
@@ -0,0 +1,59 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.AccommodationStatus;
+import com.komsije.booking.model.Address;
+import com.komsije.booking.repository.AccommodationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class GeoGridIndexTest {
+    private GeoGridIndex geoGridIndex;
+
+    @BeforeEach
+    public void setUp() {
+        AccommodationRepository accommodationRepository = mock(AccommodationRepository.class);
+        when(accommodationRepository.findActiveLocations()).thenReturn(Arrays.asList(
+                new Object[]{1L, 45.2671, 19.8335},     // Novi Sad
+                new Object[]{2L, 44.7866, 20.4489},     // Belgrade
+                new Object[]{3L, 45.2550, 19.8450}));   // Novi Sad, Liman
+        geoGridIndex = new GeoGridIndex(accommodationRepository);
+    }
+
+    @Test
+    public void findInBox_ShouldReturnAccommodationsInsideBox() {
+        assertThat(geoGridIndex.findInBox(45.2, 19.7, 45.3, 19.9)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(geoGridIndex.findInBox(44.0, 19.0, 46.0, 21.0)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(geoGridIndex.findInBox(-90, -180, 90, 180)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(geoGridIndex.findInBox(46.0, 19.0, 47.0, 21.0)).isEmpty();
+    }
+
+    @Test
+    public void findInRadius_ShouldUseDistanceNotBox() {
+        assertThat(geoGridIndex.findInRadius(45.2671, 19.8335, 5)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(geoGridIndex.findInRadius(45.2671, 19.8335, 1)).containsExactly(1L);
+        assertThat(geoGridIndex.findInRadius(45.2671, 19.8335, 80)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    public void refresh_ShouldMoveOrRemoveAccommodation() {
+        geoGridIndex.findInBox(45.2, 19.7, 45.3, 19.9);
+        Accommodation moved = new Accommodation();
+        moved.setId(1L);
+        moved.setStatus(AccommodationStatus.Active);
+        moved.setAddress(new Address(1L, "Street", "Belgrade", "1", "Serbia", 44.80, 20.46));
+        geoGridIndex.refresh(moved);
+        Accommodation deactivated = new Accommodation();
+        deactivated.setId(3L);
+        deactivated.setStatus(AccommodationStatus.Inactive);
+        geoGridIndex.refresh(deactivated);
+
+        assertThat(geoGridIndex.findInBox(45.2, 19.7, 45.3, 19.9)).isEmpty();
+        assertThat(geoGridIndex.findInRadius(44.7866, 20.4489, 5)).containsExactlyInAnyOrder(1L, 2L);
+    }
+}
@@ -0,0 +1,70 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.LocationSuggestionDto;
+import com.komsije.booking.dto.LocationType;
+import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.AccommodationStatus;
+import com.komsije.booking.model.Address;
+import com.komsije.booking.repository.AccommodationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+public class LocationTrieTest {
+    private LocationTrie locationTrie;
+
+    @BeforeEach
+    public void setUp() {
+        AccommodationRepository accommodationRepository = mock(AccommodationRepository.class);
+        when(accommodationRepository.findActiveCities()).thenReturn(Arrays.asList(
+                new Object[]{1L, "Novi Sad", "Serbia"},
+                new Object[]{2L, "Novi Sad", "Serbia"},
+                new Object[]{3L, "Niš", "Serbia"},
+                new Object[]{4L, "Zürich", "Switzerland"},
+                new Object[]{5L, "Đakovo", "Croatia"}));
+        locationTrie = new LocationTrie(accommodationRepository);
+    }
+
+    @Test
+    public void suggest_ShouldOrderByListings_CaseInsensitivePrefix() {
+        List<LocationSuggestionDto> suggestions = locationTrie.suggest("N");
+        assertThat(suggestions).extracting(LocationSuggestionDto::getName).containsExactly("Novi Sad", "Niš");
+        assertThat(suggestions.get(0).getListings()).isEqualTo(2);
+        assertThat(locationTrie.suggest("s")).extracting(LocationSuggestionDto::getName, LocationSuggestionDto::getType)
+                .containsExactly(tuple("Serbia", LocationType.Country), tuple("Switzerland", LocationType.Country));
+    }
+
+    @Test
+    public void suggest_ShouldIgnoreDiacritics() {
+        assertThat(locationTrie.suggest("zur")).extracting(LocationSuggestionDto::getName).containsExactly("Zürich");
+        assertThat(locationTrie.suggest("nis")).extracting(LocationSuggestionDto::getName).containsExactly("Niš");
+        assertThat(locationTrie.suggest("dak")).extracting(LocationSuggestionDto::getName).containsExactly("Đakovo");
+        assertThat(locationTrie.suggest("  ")).isEmpty();
+    }
+
+    @Test
+    public void refreshAndEvict_ShouldUpdateListingCounts() {
+        locationTrie.suggest("n");
+        locationTrie.evict(1L);
+        Accommodation approved = new Accommodation();
+        approved.setId(6L);
+        approved.setStatus(AccommodationStatus.Active);
+        approved.setAddress(new Address(6L, "Street", "Nis", "1", "Serbia", null, null));
+        locationTrie.refresh(approved);
+        Accommodation deactivated = new Accommodation();
+        deactivated.setId(4L);
+        deactivated.setStatus(AccommodationStatus.Inactive);
+        locationTrie.refresh(deactivated);
+
+        assertThat(locationTrie.suggest("novi")).extracting(LocationSuggestionDto::getListings).containsExactly(1);
+        assertThat(locationTrie.suggest("ni")).extracting(LocationSuggestionDto::getName, LocationSuggestionDto::getListings)
+                .containsExactly(tuple("Niš", 2));
+        assertThat(locationTrie.suggest("z")).isEmpty();
+    }
+}
@@ -0,0 +1,31 @@
+package com.komsije.booking.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchExecutorTest {
+    private final SearchExecutor searchExecutor = new SearchExecutor();
+
+    @AfterEach
+    public void tearDown() {
+        searchExecutor.shutdown();
+    }
+
+    @Test
+    public void evaluate_ShouldKeepIndexOrder_LargeInput() {
+        double[] results = searchExecutor.evaluate(1000, i -> i * 2.5);
+        assertEquals(1000, results.length);
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(i * 2.5, results[i]);
+        }
+    }
+
+    @Test
+    public void evaluate_ShouldRunOnCallingThread_SmallInput() {
+        Thread caller = Thread.currentThread();
+        double[] results = searchExecutor.evaluate(3, i -> Thread.currentThread() == caller ? 1 : 0);
+        assertArrayEquals(new double[]{1, 1, 1}, results);
+    }
+}
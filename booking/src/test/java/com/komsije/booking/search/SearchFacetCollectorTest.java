@@ -0,0 +1,45 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.PriceBucketDto;
+import com.komsije.booking.dto.SearchFacetsDto;
+import com.komsije.booking.dto.SearchResponseDto;
+import com.komsije.booking.model.AccommodationType;
+import com.komsije.booking.repository.AccommodationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class SearchFacetCollectorTest {
+
+    @Test
+    public void toDto_ShouldCountTypesAmenitiesAndPriceBuckets() {
+        AccommodationRepository accommodationRepository = mock(AccommodationRepository.class);
+        when(accommodationRepository.findAmenities()).thenReturn(Arrays.asList(
+                new Object[]{1L, "WiFi"}, new Object[]{1L, "TV"},
+                new Object[]{2L, "WiFi"},
+                new Object[]{3L, "Parking"}));
+        SearchFacetCollector facetCollector = new SearchFacetCollector();
+        facetCollector.add(result(1L, AccommodationType.Room, 40));
+        facetCollector.add(result(2L, AccommodationType.Room, 120));
+        facetCollector.add(result(4L, AccommodationType.Hotel, 650));
+
+        SearchFacetsDto facets = facetCollector.toDto(new AmenityIndex(accommodationRepository));
+
+        assertThat(facets.getAccommodationTypes()).containsEntry(AccommodationType.Room, 2).containsEntry(AccommodationType.Hotel, 1).containsEntry(AccommodationType.Apartment, 0);
+        assertThat(facets.getAmenities()).isEqualTo(Map.of("WiFi", 2, "TV", 1));
+        assertThat(facets.getPricesPerNight()).extracting(PriceBucketDto::getCount).containsExactly(1, 0, 1, 0, 1);
+        assertThat(facets.getPricesPerNight().get(4).getTo()).isNull();
+    }
+
+    private SearchResponseDto result(Long id, AccommodationType type, double pricePerNight) {
+        SearchResponseDto result = new SearchResponseDto();
+        result.setId(id);
+        result.setAccommodationType(type);
+        result.setPricePerNight(pricePerNight);
+        return result;
+    }
+}
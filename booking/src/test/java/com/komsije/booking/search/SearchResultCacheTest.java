@@ -0,0 +1,76 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.SearchFacetsDto;
+import com.komsije.booking.dto.SearchResponseDto;
+import com.komsije.booking.dto.SearchSort;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchResultCacheTest {
+    private final SearchResultCache cache = new SearchResultCache();
+    private final SearchResultCache.Key key = SearchResultCache.Key.of("City1", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5), 2, AmenityFilter.NONE, 0);
+    private final AtomicInteger searches = new AtomicInteger();
+    private final AtomicInteger collections = new AtomicInteger();
+    private final Supplier<List<SearchResponseDto>> search = () -> cache.get(key, () -> {
+        searches.incrementAndGet();
+        return List.of(new SearchResponseDto());
+    });
+    private final Function<List<SearchResponseDto>, SearchFacetsDto> collect = results -> {
+        collections.incrementAndGet();
+        return new SearchFacetsDto();
+    };
+
+    @Test
+    public void getFacets_ShouldCountOncePerSearch() {
+        search.get();
+
+        SearchFacetsDto first = cache.getFacets(key, search, collect);
+        SearchFacetsDto second = cache.getFacets(key, search, collect);
+
+        assertThat(second).isSameAs(first);
+        assertThat(searches.get()).isEqualTo(1);
+        assertThat(collections.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void getFacets_ShouldSearchFirst_NothingCached() {
+        cache.getFacets(key, search, collect);
+        cache.getFacets(key, search, collect);
+
+        assertThat(searches.get()).isEqualTo(1);
+        assertThat(collections.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void getFacets_ShouldCountAgain_CityEvicted() {
+        cache.getFacets(key, search, collect);
+        cache.evictCity("city1");
+        cache.getFacets(key, search, collect);
+
+        assertThat(searches.get()).isEqualTo(2);
+        assertThat(collections.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void getSorted_ShouldSortOncePerSearchAndOrder() {
+        AtomicInteger sorts = new AtomicInteger();
+        Function<List<SearchResponseDto>, List<SearchResponseDto>> sorter = results -> {
+            sorts.incrementAndGet();
+            return results;
+        };
+
+        cache.getSorted(key, SearchSort.PRICE, search, sorter);
+        cache.getSorted(key, SearchSort.PRICE, search, sorter);
+        cache.getSorted(key, SearchSort.GRADE, search, sorter);
+
+        assertThat(searches.get()).isEqualTo(1);
+        assertThat(sorts.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.CoalescingStatsDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test");
+
+    @Test
+    public void execute_ShouldShareComputation_ConcurrentIdenticalKeys() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                computations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return 42;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<Integer>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> singleFlight.execute("key", computations::incrementAndGet)));
+            }
+            while (singleFlight.getStats().getCoalesced() < 3) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+            for (Future<Integer> follower : followers) {
+                assertEquals(42, follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+        CoalescingStatsDto stats = singleFlight.getStats();
+        assertEquals(4, stats.getRequests());
+        assertEquals(0.75, stats.getCoalescingRatio());
+    }
+
+    @Test
+    public void execute_ShouldComputeAgain_PreviousFlightFinished() {
+        assertEquals(1, singleFlight.execute("key", () -> 1));
+        assertEquals(2, singleFlight.execute("key", () -> 2));
+        assertEquals(0, singleFlight.getStats().getCoalesced());
+    }
+
+    @Test
+    public void execute_ShouldRethrowAndRelease_ComputationFails() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("key", () -> {
+                    throw new IllegalStateException("failed");
+                }));
+        assertEquals("failed", exception.getMessage());
+        assertEquals(3, singleFlight.execute("key", () -> 3));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.model.TimeSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class TimeSlotCalendarTest {
+    private final LocalDate day = LocalDate.of(2024, 3, 1);
+
+    @Test
+    public void reserve_ShouldKeepRowForReservedPart_MiddleOfSlot() {
+        TimeSlot slot = new TimeSlot(1L, day, day.plusDays(10), 100, false);
+        List<TimeSlot> slots = new ArrayList<>(List.of(slot));
+
+        new TimeSlotCalendar(slots).reserve(day.plusDays(3), day.plusDays(5));
+
+        assertThat(slot.getStartDate()).isEqualTo(day.plusDays(3));
+        assertThat(slot.isOccupied()).isTrue();
+        assertThat(sorted(slots)).extracting(TimeSlot::getStartDate, TimeSlot::getEndDate, TimeSlot::isOccupied).containsExactly(
+                tuple(day, day.plusDays(3), false),
+                tuple(day.plusDays(3), day.plusDays(5), true),
+                tuple(day.plusDays(5), day.plusDays(10), false));
+    }
+
+    @Test
+    public void reserve_ShouldSkipOccupiedSlots_RangeSpansSeveralSlots() {
+        List<TimeSlot> slots = new ArrayList<>(List.of(
+                new TimeSlot(1L, day, day.plusDays(4), 100, false),
+                new TimeSlot(2L, day.plusDays(4), day.plusDays(6), 100, true),
+                new TimeSlot(3L, day.plusDays(6), day.plusDays(10), 150, false)));
+
+        new TimeSlotCalendar(slots).reserve(day.plusDays(2), day.plusDays(8));
+
+        assertThat(sorted(slots)).extracting(TimeSlot::getStartDate, TimeSlot::getEndDate, TimeSlot::isOccupied).containsExactly(
+                tuple(day, day.plusDays(2), false),
+                tuple(day.plusDays(2), day.plusDays(4), true),
+                tuple(day.plusDays(4), day.plusDays(6), true),
+                tuple(day.plusDays(6), day.plusDays(8), true),
+                tuple(day.plusDays(8), day.plusDays(10), false));
+    }
+
+    @Test
+    public void release_ShouldMergeFreeNeighboursWithSamePrice() {
+        List<TimeSlot> slots = new ArrayList<>(List.of(new TimeSlot(1L, day, day.plusDays(10), 100, false), new TimeSlot(2L, day.plusDays(10), day.plusDays(12), 200, false)));
+        new TimeSlotCalendar(slots).reserve(day.plusDays(3), day.plusDays(5));
+
+        new TimeSlotCalendar(slots).release(day.plusDays(3), day.plusDays(5));
+
+        assertThat(sorted(slots)).extracting(TimeSlot::getStartDate, TimeSlot::getEndDate, TimeSlot::isOccupied).containsExactly(
+                tuple(day, day.plusDays(10), false),
+                tuple(day.plusDays(10), day.plusDays(12), false));
+        assertThat(slots).hasSize(2);
+    }
+
+    @Test
+    public void release_ShouldNotMergeWithOccupiedNeighbour() {
+        List<TimeSlot> slots = new ArrayList<>(List.of(
+                new TimeSlot(1L, day, day.plusDays(2), 100, true),
+                new TimeSlot(2L, day.plusDays(2), day.plusDays(4), 100, true)));
+
+        new TimeSlotCalendar(slots).release(day.plusDays(2), day.plusDays(4));
+
+        assertThat(sorted(slots)).extracting(TimeSlot::getStartDate, TimeSlot::isOccupied).containsExactly(
+                tuple(day, true),
+                tuple(day.plusDays(2), false));
+    }
+
+    private List<TimeSlot> sorted(List<TimeSlot> slots) {
+        List<TimeSlot> sorted = new ArrayList<>(slots);
+        sorted.sort(Comparator.comparing(TimeSlot::getStartDate));
+        return sorted;
+    }
+}
@@ -0,0 +1,49 @@
+package com.komsije.booking.search;
+
+import com.komsije.booking.dto.SearchResponseDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopKTest {
+
+    @Test
+    public void select_ShouldReturnBestFirst_MoreElementsThanK() {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers);
+        assertThat(TopK.select(numbers, 3, Comparator.naturalOrder())).containsExactly(999, 998, 997);
+    }
+
+    @Test
+    public void select_ShouldReturnAllSorted_FewerElementsThanK() {
+        assertThat(TopK.select(List.of(2, 5, 1), 10, Comparator.naturalOrder())).containsExactly(5, 2, 1);
+        assertTrue(TopK.select(List.of(2, 5, 1), 0, Comparator.<Integer>naturalOrder()).isEmpty());
+    }
+
+    @Test
+    public void weightedScore_ShouldPreferBetterGradeCheaperAndMoreReviewed() {
+        WeightedRelevanceScorer scorer = new WeightedRelevanceScorer(0.5, 0.3, 0.2, 100, 10);
+        SearchResponseDto base = result(4.0, 100, 10);
+        assertTrue(scorer.score(result(5.0, 100, 10)) > scorer.score(base));
+        assertTrue(scorer.score(result(4.0, 50, 10)) > scorer.score(base));
+        assertTrue(scorer.score(result(4.0, 100, 20)) > scorer.score(base));
+        assertEquals(0.5 * 0.8 + 0.3 * 0.5 + 0.2 * 0.5, scorer.score(base), 1e-9);
+    }
+
+    private SearchResponseDto result(double averageGrade, double pricePerNight, int reviewCount) {
+        SearchResponseDto result = new SearchResponseDto();
+        result.setAverageGrade(averageGrade);
+        result.setPricePerNight(pricePerNight);
+        result.setReviewCount(reviewCount);
+        return result;
+    }
+}
@@ -2,9 +2,27 @@ package com.komsije.booking.service;
 
 import com.komsije.booking.exceptions.ElementNotFoundException;
 import com.komsije.booking.exceptions.ReservationAlreadyExistsException;
+import com.komsije.booking.dto.AccommodationDto;
+import com.komsije.booking.dto.AvailabilityDto;
+import com.komsije.booking.dto.PriceRequest;
+import com.komsije.booking.dto.PriceResponse;
+import com.komsije.booking.dto.SearchPageDto;
+import com.komsije.booking.dto.SearchRequestDto;
+import com.komsije.booking.dto.SearchResponseDto;
+import com.komsije.booking.dto.SearchSort;
+import com.komsije.booking.dto.TimeSlotDto;
 import com.komsije.booking.model.Accommodation;
+import com.komsije.booking.model.AccommodationListing;
+import com.komsije.booking.model.Address;
+import com.komsije.booking.model.Review;
+import com.komsije.booking.model.ReviewStatus;
 import com.komsije.booking.model.TimeSlot;
+import com.komsije.booking.repository.AccommodationListingRepository;
 import com.komsije.booking.repository.AccommodationRepository;
+import com.komsije.booking.search.AmenityFilter;
+import com.komsije.booking.search.AvailabilityIndex;
+import com.komsije.booking.search.SearchCursor;
+import com.komsije.booking.search.SearchResultCache;
 import com.komsije.booking.service.interfaces.AccommodationService;
 import org.apache.commons.lang3.SerializationUtils;
 import org.checkerframework.checker.units.qual.A;
@@ -18,6 +36,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.time.LocalDate;
@@ -29,6 +48,8 @@ import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_METHOD)
@@ -37,9 +58,15 @@ import static org.mockito.Mockito.*;
 public class AccommodationServiceTest {
     @MockBean
     private AccommodationRepository accommodationRepository;
+    @MockBean
+    private AccommodationListingRepository listingRepository;
 
     @Autowired
     private AccommodationServiceImpl accommodationService;
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    @Autowired
+    private SearchResultCache searchResultCache;
     private List<TimeSlot> availability;
     private LocalDate referenceDate = LocalDate.now().plusDays(10);
     private final Long VALID_ACCOMMODATION_ID = 10L;
@@ -52,6 +79,7 @@ public class AccommodationServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        searchResultCache.clear();
         availability = new ArrayList<>();
         availability.addAll(Arrays.asList(new TimeSlot(1L, referenceDate, referenceDate.plusDays(10), 200, false),          // 0 - 10
                 new TimeSlot(2L, referenceDate.plusDays(10), referenceDate.plusDays(15), 300, false),           // 10 - 15
@@ -72,6 +100,10 @@ public class AccommodationServiceTest {
         verify(accommodationRepository).findById(VALID_ACCOMMODATION_ID);
         verify(accommodationRepository).save(accommodation);
         verifyNoMoreInteractions(accommodationRepository);
+        assertEquals(4, copyTimeslots.size());
+        copyTimeslots.sort((item1, item2) -> {
+            return Math.toIntExact(item1.getStartDate().toEpochDay() - item2.getStartDate().toEpochDay());
+        });
         for (int i = 0; i < copyTimeslots.size(); i++) {
             if (copyTimeslots.get(i).getId().equals(2L)) {
                 assertThat(copyTimeslots.get(i)).usingRecursiveComparison().ignoringFields("isOccupied").isEqualTo(availability.get(i));
@@ -232,6 +264,308 @@ public class AccommodationServiceTest {
         }
     }
 
+    @Test
+    public void getSearchedPage_ShouldReturnPageAndCursor_MoreResultsThanPageSize(){
+        List<AccommodationListing> listings = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            listings.add(searchableListing(id));
+        }
+        SearchRequestDto searchRequestDto = new SearchRequestDto();
+        searchRequestDto.setPlace("City1");
+        searchRequestDto.setStartDate(referenceDate.plusDays(1).atStartOfDay());
+        searchRequestDto.setEndDate(referenceDate.plusDays(3).atStartOfDay());
+        searchRequestDto.setSort(SearchSort.ID);
+        searchRequestDto.setPageSize(2);
+        when(listingRepository.searchAfterId(eq("City1"), eq(0), eq(0L), any())).thenReturn(listings);
+        when(listingRepository.searchAfterId(eq("City1"), eq(0), eq(2L), any())).thenReturn(listings.subList(2, 3));
+
+        SearchPageDto firstPage = accommodationService.getSearchedPage(searchRequestDto);
+        assertThat(firstPage.getResults()).extracting(SearchResponseDto::getId).containsExactly(1L, 2L);
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(400, firstPage.getResults().get(0).getPrice());
+
+        searchRequestDto.setCursor(firstPage.getNextCursor());
+        SearchPageDto secondPage = accommodationService.getSearchedPage(searchRequestDto);
+        assertThat(secondPage.getResults()).extracting(SearchResponseDto::getId).containsExactly(3L);
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    public void getSearchedPage_ShouldSearchOnce_PagingByPrice(){
+        List<AccommodationListing> listings = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            listings.add(searchableListing(id));
+        }
+        SearchRequestDto searchRequestDto = new SearchRequestDto();
+        searchRequestDto.setPlace("City1");
+        searchRequestDto.setStartDate(referenceDate.plusDays(1).atStartOfDay());
+        searchRequestDto.setEndDate(referenceDate.plusDays(3).atStartOfDay());
+        searchRequestDto.setSort(SearchSort.PRICE);
+        searchRequestDto.setPageSize(2);
+        searchRequestDto.setFacets(true);
+        when(listingRepository.search(eq("City1"), eq(0))).thenReturn(listings);
+
+        SearchPageDto firstPage = accommodationService.getSearchedPage(searchRequestDto);
+        assertThat(firstPage.getResults()).extracting(SearchResponseDto::getId).containsExactly(1L, 2L);
+        assertNotNull(firstPage.getFacets());
+
+        searchRequestDto.setCursor(firstPage.getNextCursor());
+        SearchPageDto secondPage = accommodationService.getSearchedPage(searchRequestDto);
+        assertThat(secondPage.getResults()).extracting(SearchResponseDto::getId).containsExactly(3L);
+        assertNull(secondPage.getNextCursor());
+        assertNull(secondPage.getFacets());
+        verify(listingRepository, times(1)).search(any(), anyInt());
+    }
+
+    @Test
+    public void getSearchedPage_ShouldContinueAfterGradeCursor_FlexibleDates(){
+        List<AccommodationListing> listings = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            AccommodationListing listing = searchableListing(id);
+            listing.setAverageGrade(6 - id);
+            listings.add(listing);
+        }
+        SearchRequestDto searchRequestDto = new SearchRequestDto();
+        searchRequestDto.setPlace("City1");
+        searchRequestDto.setStartDate(referenceDate.plusDays(1).atStartOfDay());
+        searchRequestDto.setEndDate(referenceDate.plusDays(3).atStartOfDay());
+        searchRequestDto.setSort(SearchSort.GRADE);
+        searchRequestDto.setFlexibleDays(1);
+        // the cursor the database path hands out after the best graded accommodation
+        searchRequestDto.setCursor(new SearchCursor(SearchSort.GRADE, 5, 1L).encode());
+        when(listingRepository.search(eq("City1"), eq(0))).thenReturn(listings);
+
+        SearchPageDto page = accommodationService.getSearchedPage(searchRequestDto);
+
+        assertThat(page.getResults()).extracting(SearchResponseDto::getId).containsExactly(2L, 3L);
+    }
+
+    @Test
+    public void getSearchedPage_ShouldThrowException_CursorNotValid(){
+        SearchRequestDto searchRequestDto = new SearchRequestDto();
+        searchRequestDto.setPlace("City1");
+        searchRequestDto.setStartDate(referenceDate.atStartOfDay());
+        searchRequestDto.setEndDate(referenceDate.plusDays(3).atStartOfDay());
+        searchRequestDto.setCursor("not-a-cursor");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> accommodationService.getSearchedPage(searchRequestDto));
+        assertEquals("Search cursor is not valid!", exception.getMessage());
+        verifyNoInteractions(accommodationRepository, listingRepository);
+    }
+
+    @Test
+    public void getSearchedAccommodations_ShouldUseCache_SameSearchRepeated(){
+        List<AccommodationListing> listings = List.of(searchableListing(1L));
+        SearchRequestDto searchRequestDto = new SearchRequestDto();
+        searchRequestDto.setPlace("City1");
+        searchRequestDto.setStartDate(referenceDate.plusDays(1).atStartOfDay());
+        searchRequestDto.setEndDate(referenceDate.plusDays(3).atStartOfDay());
+        when(listingRepository.search(eq("City1"), eq(0))).thenReturn(listings);
+        when(listingRepository.search(eq("city1"), eq(0))).thenReturn(listings);
+
+        long hits = searchResultCache.getStats().getHits();
+        accommodationService.getSearchedAccommodations(searchRequestDto);
+        searchRequestDto.setPlace(" city1 ");
+        List<SearchResponseDto> results = accommodationService.getSearchedAccommodations(searchRequestDto);
+
+        assertThat(results).extracting(SearchResponseDto::getId).containsExactly(1L);
+        verify(listingRepository, times(1)).search(any(), anyInt());
+        assertEquals(hits + 1, searchResultCache.getStats().getHits());
+    }
+
+    @Test
+    public void reserveTimeslot_ShouldEvictCachedSearchesForCity(){
+        Accommodation accommodation = searchableAccommodation(1L);
+        SearchRequestDto searchRequestDto = new SearchRequestDto();
+        searchRequestDto.setPlace("City1");
+        searchRequestDto.setStartDate(referenceDate.plusDays(1).atStartOfDay());
+        searchRequestDto.setEndDate(referenceDate.plusDays(3).atStartOfDay());
+        when(listingRepository.search(eq("City1"), eq(0))).thenReturn(List.of(toListing(accommodation)));
+        when(accommodationRepository.findById(1L)).thenReturn(Optional.of(accommodation));
+
+        assertThat(accommodationService.getSearchedAccommodations(searchRequestDto)).hasSize(1);
+        long evictions = searchResultCache.getStats().getEvictions();
+        accommodationService.reserveTimeslot(1L, referenceDate, referenceDate.plusDays(5));
+        assertThat(accommodationService.getSearchedAccommodations(searchRequestDto)).isEmpty();
+        verify(listingRepository, times(2)).search(any(), anyInt());
+        assertEquals(evictions + 1, searchResultCache.getStats().getEvictions());
+    }
+
+    @Test
+    public void reserveTimeslot_ShouldRetryOnFreshSlots_ConcurrentModification(){
+        Accommodation stale = new Accommodation();
+        stale.setAvailability(deepCopyUsingSerialization(availability));
+        Accommodation fresh = new Accommodation();
+        fresh.setAvailability(deepCopyUsingSerialization(availability));
+        when(accommodationRepository.findById(VALID_ACCOMMODATION_ID)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(accommodationRepository.save(stale)).thenThrow(new ObjectOptimisticLockingFailureException(Accommodation.class, VALID_ACCOMMODATION_ID));
+
+        accommodationService.reserveTimeslot(VALID_ACCOMMODATION_ID, referenceDate.plusDays(10), referenceDate.plusDays(15));
+
+        verify(accommodationRepository, times(2)).findById(VALID_ACCOMMODATION_ID);
+        verify(accommodationRepository).save(fresh);
+        assertThat(fresh.getAvailability()).filteredOn(TimeSlot::isOccupied).extracting(TimeSlot::getId).containsExactly(2L);
+    }
+
+    @Test
+    public void updateAvailability_ShouldRetryOnFreshSlots_ConcurrentModification(){
+        Accommodation stale = new Accommodation();
+        stale.setAvailability(deepCopyUsingSerialization(availability));
+        Accommodation fresh = new Accommodation();
+        fresh.setId(VALID_ACCOMMODATION_ID);
+        fresh.setAvailability(deepCopyUsingSerialization(availability));
+        when(accommodationRepository.findById(VALID_ACCOMMODATION_ID)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(accommodationRepository.save(stale)).thenThrow(new ObjectOptimisticLockingFailureException(Accommodation.class, VALID_ACCOMMODATION_ID));
+        TimeSlotDto added = new TimeSlotDto();
+        added.setStartDate(referenceDate.plusDays(30).atStartOfDay());
+        added.setEndDate(referenceDate.plusDays(35).atStartOfDay());
+        added.setPrice(250);
+        AvailabilityDto availabilityDto = new AvailabilityDto();
+        availabilityDto.setCancellationDeadline(3);
+        availabilityDto.getAvailability().add(added);
+
+        accommodationService.updateAvailability(VALID_ACCOMMODATION_ID, availabilityDto);
+
+        verify(accommodationRepository).save(fresh);
+        verify(listingRepository).save(any(AccommodationListing.class));
+        assertEquals(3, fresh.getCancellationDeadline());
+        assertThat(fresh.getAvailability()).hasSize(availability.size() + 1);
+        assertTrue(availabilityIndex.isAvailable(VALID_ACCOMMODATION_ID, referenceDate.plusDays(30), referenceDate.plusDays(35)));
+    }
+
+    @Test
+    public void update_ShouldRefreshIndexAfterCommit(){
+        Accommodation accommodation = searchableAccommodation(VALID_ACCOMMODATION_ID);
+        when(accommodationRepository.findById(VALID_ACCOMMODATION_ID)).thenReturn(Optional.of(accommodation));
+        AccommodationDto accommodationDto = new AccommodationDto();
+        accommodationDto.setId(VALID_ACCOMMODATION_ID);
+
+        accommodationService.update(accommodationDto);
+
+        assertFalse(availabilityIndex.isAvailable(VALID_ACCOMMODATION_ID, referenceDate, referenceDate.plusDays(2)));
+    }
+
+    @Test
+    public void update_ShouldEvictCachedSearchesOnceAfterCommit(){
+        Accommodation accommodation = searchableAccommodation(VALID_ACCOMMODATION_ID);
+        SearchRequestDto searchRequestDto = new SearchRequestDto();
+        searchRequestDto.setPlace("City1");
+        searchRequestDto.setStartDate(referenceDate.plusDays(1).atStartOfDay());
+        searchRequestDto.setEndDate(referenceDate.plusDays(3).atStartOfDay());
+        when(listingRepository.search(eq("City1"), eq(0))).thenReturn(List.of(toListing(accommodation)));
+        when(accommodationRepository.findById(VALID_ACCOMMODATION_ID)).thenReturn(Optional.of(accommodation));
+        AccommodationDto accommodationDto = new AccommodationDto();
+        accommodationDto.setId(VALID_ACCOMMODATION_ID);
+
+        assertThat(accommodationService.getSearchedAccommodations(searchRequestDto)).hasSize(1);
+        long evictions = searchResultCache.getStats().getEvictions();
+        accommodationService.update(accommodationDto);
+
+        assertEquals(evictions + 1, searchResultCache.getStats().getEvictions());
+        assertThat(accommodationService.getSearchedAccommodations(searchRequestDto)).isEmpty();
+    }
+
+    @Test
+    public void update_ShouldKeepIndex_TransactionRolledBack(){
+        Accommodation accommodation = searchableAccommodation(VALID_ACCOMMODATION_ID);
+        when(accommodationRepository.findById(VALID_ACCOMMODATION_ID)).thenReturn(Optional.of(accommodation));
+        when(listingRepository.save(any())).thenThrow(new IllegalStateException("Listing not written"));
+        AccommodationDto accommodationDto = new AccommodationDto();
+        accommodationDto.setId(VALID_ACCOMMODATION_ID);
+
+        assertThrows(IllegalStateException.class, () -> accommodationService.update(accommodationDto));
+
+        assertTrue(availabilityIndex.isAvailable(VALID_ACCOMMODATION_ID, referenceDate, referenceDate.plusDays(2)));
+    }
+
+    @Test
+    public void reserveTimeslot_ShouldGiveUp_ConflictOnEveryAttempt(){
+        when(accommodationRepository.findById(VALID_ACCOMMODATION_ID)).thenAnswer(invocation -> {
+            Accommodation accommodation = new Accommodation();
+            accommodation.setAvailability(deepCopyUsingSerialization(availability));
+            return Optional.of(accommodation);
+        });
+        when(accommodationRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(Accommodation.class, VALID_ACCOMMODATION_ID));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> accommodationService.reserveTimeslot(VALID_ACCOMMODATION_ID, referenceDate, referenceDate.plusDays(2)));
+        verify(accommodationRepository, times(3)).findById(VALID_ACCOMMODATION_ID);
+    }
+
+    @Test
+    public void getAvailabilityPrices_ShouldQuoteInRequestOrder_SingleLoad(){
+        Accommodation first = searchableAccommodation(1L);
+        Accommodation second = searchableAccommodation(2L);
+        second.setPricePerGuest(true);
+        when(accommodationRepository.findAllById(any())).thenReturn(List.of(first, second));
+
+        List<PriceResponse> priceResponses = accommodationService.getAvailabilityPrices(List.of(
+                priceRequest(2L, referenceDate, referenceDate.plusDays(2), 3),
+                priceRequest(1L, referenceDate.plusDays(9), referenceDate.plusDays(11), null),
+                priceRequest(1L, referenceDate.plusDays(19), referenceDate.plusDays(24), null)));
+
+        assertThat(priceResponses).extracting(PriceResponse::getTotalPrice).containsExactly(3 * 2 * 200.0, 200.0 + 300.0, 0.0);
+        assertThat(priceResponses).extracting(PriceResponse::isAvailable).containsExactly(true, true, false);
+        verify(accommodationRepository, times(1)).findAllById(any());
+        verify(accommodationRepository, never()).findById(any());
+    }
+
+    private PriceRequest priceRequest(Long accommodationId, LocalDate startDate, LocalDate endDate, Integer guests){
+        PriceRequest priceRequest = new PriceRequest();
+        priceRequest.setAccommodationId(accommodationId);
+        priceRequest.setStartDate(startDate);
+        priceRequest.setEndDate(endDate);
+        priceRequest.setGuests(guests);
+        return priceRequest;
+    }
+
+    private AccommodationListing searchableListing(Long id){
+        return toListing(searchableAccommodation(id));
+    }
+
+    private AccommodationListing toListing(Accommodation accommodation){
+        AccommodationListing listing = new AccommodationListing();
+        listing.setId(accommodation.getId());
+        listing.setAddressId(accommodation.getAddress().getId());
+        listing.setCity(accommodation.getAddress().getCity());
+        listing.setCityKey(accommodation.getAddress().getCity().toLowerCase());
+        return listing;
+    }
+
+    private Accommodation searchableAccommodation(Long id){
+        Accommodation accommodation = new Accommodation();
+        accommodation.setId(id);
+        accommodation.setAddress(new Address(id, "Street", "City1", "1", "Serbia", 45.0, 19.0));
+        accommodation.setAvailability(deepCopyUsingSerialization(availability));
+        availabilityIndex.refresh(accommodation);
+        return accommodation;
+    }
+
+    @Test
+    public void updateAverageGrade_ShouldStoreZero_NoApprovedReviews(){
+        Accommodation accommodation = searchableAccommodation(VALID_ACCOMMODATION_ID);
+        Review pending = new Review();
+        pending.setGrade(4);
+        pending.setStatus(ReviewStatus.Pending);
+        accommodation.getReviews().add(pending);
+        when(accommodationRepository.findById(VALID_ACCOMMODATION_ID)).thenReturn(Optional.of(accommodation));
+
+        accommodationService.updateAverageGrade(VALID_ACCOMMODATION_ID);
+
+        assertEquals(0, accommodation.getAverageGrade());
+        verify(listingRepository).save(argThat(listing -> listing.getAverageGrade() == 0 && listing.getReviewCount() == 0));
+    }
+
+    @Test
+    public void getByAmenities_ShouldThrowException_NoAmenityToMatch(){
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> accommodationService.getByAmenities(AmenityFilter.of(null, null, List.of("TV"))));
+        assertEquals("At least one amenity to match must be given!", exception.getMessage());
+
+        verifyNoInteractions(accommodationRepository);
+    }
+
     @Test
     public void findModelById_ShouldThrowException_IdDoesNotExist(){
         when(accommodationRepository.findById(INVALID_ACCOMMODATION_ID)).thenReturn(Optional.empty());
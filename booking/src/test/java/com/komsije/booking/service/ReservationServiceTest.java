@@ -1,6 +1,8 @@
 package com.komsije.booking.service;
 
 import com.komsije.booking.dto.ReservationDto;
+import com.komsije.booking.config.ReservationOverlapConstraint;
+import com.komsije.booking.exceptions.OverlappingReservationException;
 import com.komsije.booking.exceptions.PendingReservationException;
 import com.komsije.booking.exceptions.ReservationAlreadyExistsException;
 import com.komsije.booking.mapper.ReservationMapper;
@@ -13,12 +15,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -222,7 +224,7 @@ public class ReservationServiceTest {
     }
 
     @Test
-    public void testSaveNewReservation_ShouldCreateActiveAndSendNotification_AutoApprovingAccommodation() throws InterruptedException {
+    public void testSaveNewReservation_ShouldLeaveActivationToSweeper_AutoApprovingAccommodationStartingToday() {
         Account guest = new Account();
         guest.setSettings(new HashSet<>(Arrays.asList(Settings.RESERVATION_RESPONSE_NOTIFICATION)));
         Account host = new Account();
@@ -244,8 +246,7 @@ public class ReservationServiceTest {
         when(accountService.findModelById(1L)).thenReturn(host);
 
         ReservationDto result = reservationService.saveNewReservation(reservationDto);
-        Thread.sleep(500);
-        assertEquals(reservation.getReservationStatus(), ReservationStatus.Active);
+        assertEquals(reservation.getReservationStatus(), ReservationStatus.Approved);
 
         verify(reservationRepository).getIfExists(reservationDto.getStartDate(), reservationDto.getAccommodationId(), reservationDto.getGuestId());
         verify(accommodationService).findModelById(reservationDto.getAccommodationId());
@@ -256,7 +257,7 @@ public class ReservationServiceTest {
     }
 
     @Test
-    public void testSaveNewReservation_ShouldCreateDoneAndSendNotification_AutoApprovingAccommodation() throws InterruptedException {
+    public void testSaveNewReservation_ShouldLeaveCompletionToSweeper_AutoApprovingAccommodationInPast() {
         Account guest = new Account();
         guest.setSettings(new HashSet<>(Arrays.asList(Settings.RESERVATION_RESPONSE_NOTIFICATION)));
         Account host = new Account();
@@ -277,8 +278,7 @@ public class ReservationServiceTest {
         when(accountService.findModelById(1L)).thenReturn(host);
 
         ReservationDto result = reservationService.saveNewReservation(reservationDto);
-        Thread.sleep(500);
-        assertEquals(reservation.getReservationStatus(), ReservationStatus.Done);
+        assertEquals(reservation.getReservationStatus(), ReservationStatus.Approved);
 
         verify(reservationRepository).getIfExists(reservationDto.getStartDate(), reservationDto.getAccommodationId(), reservationDto.getGuestId());
         verify(accommodationService).findModelById(reservationDto.getAccommodationId());
@@ -289,7 +289,7 @@ public class ReservationServiceTest {
     }
 
     @Test
-    public void testSaveNewReservation_ShouldCreateDeniedAndSendHostNotification_AutoApprovingAccommodation() throws InterruptedException {
+    public void testSaveNewReservation_ShouldLeaveExpiryToSweeper_PendingStartingToday() {
         Account host = new Account();
         host.setSettings(new HashSet<>(Arrays.asList(Settings.RESERVATION_REQUEST_NOTIFICATION)));
         Account guest = new Account();
@@ -310,8 +310,7 @@ public class ReservationServiceTest {
         when(accountService.findModelById(1L)).thenReturn(host);
 
         ReservationDto result = reservationService.saveNewReservation(reservationDto);
-        Thread.sleep(500);
-        assertEquals(reservation.getReservationStatus(), ReservationStatus.Denied);
+        assertEquals(reservation.getReservationStatus(), ReservationStatus.Pending);
 
         verify(reservationRepository).getIfExists(reservationDto.getStartDate(), reservationDto.getAccommodationId(), reservationDto.getGuestId());
         verify(accommodationService).findModelById(reservationDto.getAccommodationId());
@@ -359,7 +358,7 @@ public class ReservationServiceTest {
 
         verify(reservationRepository).findById(VALID_RESERVATION_ID);
         verify(reservationRepository,atLeast(1)).save(reservation);
-        verify(reservationRepository).findPendingByAccommodationId(accommodation.getId());
+        verify(reservationRepository).findPendingOverlapping(accommodation.getId(), reservation.getStartDate(), reservation.getStartDate().plusDays(reservation.getDays()));
         verifyNoMoreInteractions(reservationRepository);
         verify(notificationService).saveAndSendNotification(any(Notification.class));
         verifyNoMoreInteractions(notificationService);
@@ -368,7 +367,7 @@ public class ReservationServiceTest {
     }
 
     @Test
-    public void testAcceptReservationRequest_ShouldSetStatusToActiveSendGuestNotificationAndReturnTrue_StartDateNow() throws InterruptedException {
+    public void testAcceptReservationRequest_ShouldApproveSendGuestNotificationAndReturnTrue_StartDateNow() {
         Account guest = new Account();
         guest.setSettings(new HashSet<>(Arrays.asList(Settings.RESERVATION_RESPONSE_NOTIFICATION)));
         Account host = new Account();
@@ -384,19 +383,57 @@ public class ReservationServiceTest {
         boolean result = reservationService.acceptReservationRequest(VALID_RESERVATION_ID);
 
         assertTrue(result);
-        Thread.sleep(500);
-        assertEquals(ReservationStatus.Active, reservation.getReservationStatus());
+        assertEquals(ReservationStatus.Approved, reservation.getReservationStatus());
 
         verify(reservationRepository,atLeast(1)).save(reservation);
         verify(reservationRepository).findById(VALID_RESERVATION_ID);
-        verify(reservationRepository).findPendingByAccommodationId(accommodation.getId());
+        verify(reservationRepository).findPendingOverlapping(accommodation.getId(), reservation.getStartDate(), reservation.getStartDate().plusDays(reservation.getDays()));
         verify(notificationService).saveAndSendNotification(any(Notification.class));
         verifyNoMoreInteractions(notificationService);
 
     }
 
     @Test
-    public void testAcceptReservationRequest_ShouldSetStatusToDoneSendNotificationAndReturnTrue_EndDatePast() throws InterruptedException {
+    public void testAcceptReservationRequest_ShouldRevertToPending_TimeslotNotReserved() {
+        Accommodation accommodation = new Accommodation();
+        accommodation.setId(VALID_ACCOMMODATION_ID);
+        LocalDate startDate = LocalDate.now().plusDays(5);
+        Reservation reservation = new Reservation(VALID_RESERVATION_ID, startDate, LocalDate.now(), 3, 3, 300, 1L, 6L, accommodation, ReservationStatus.Pending);
+        when(reservationRepository.findById(VALID_RESERVATION_ID)).thenReturn(Optional.of(reservation));
+        doThrow(new OptimisticLockingFailureException("Calendar changed")).when(accommodationService).reserveTimeslot(VALID_ACCOMMODATION_ID, startDate, startDate.plusDays(3));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> reservationService.acceptReservationRequest(VALID_RESERVATION_ID));
+        assertEquals(ReservationStatus.Pending, reservation.getReservationStatus());
+
+        verify(reservationRepository, times(2)).save(reservation);
+        verify(reservationRepository, never()).findPendingOverlapping(any(), any(), any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    public void testSaveNewReservation_ShouldDeny_AutoApprovingAccommodationTimeslotNotReserved() {
+        Account host = new Account();
+        host.setSettings(new HashSet<>());
+        ReservationDto reservationDto = new ReservationDto(VALID_RESERVATION_ID, LocalDate.now().plusDays(5), LocalDate.now(), 3, 300, ReservationStatus.Pending, VALID_ACCOMMODATION_ID, 6L, 1L, 3);
+        Reservation reservation = new Reservation(VALID_RESERVATION_ID, LocalDate.now().plusDays(5), null, 3, 3, 300, 1L, 6L, null, ReservationStatus.Pending);
+        Accommodation accommodation = new Accommodation();
+        accommodation.setId(VALID_ACCOMMODATION_ID);
+        accommodation.setAutoApproval(true);
+        when(reservationRepository.getIfExists(reservationDto.getStartDate(), reservationDto.getAccommodationId(), reservationDto.getGuestId())).thenReturn(new ArrayList<>());
+        when(reservationMapper.fromDto(reservationDto)).thenReturn(reservation);
+        when(accommodationService.findModelById(reservationDto.getAccommodationId())).thenReturn(accommodation);
+        when(accountService.findModelById(1L)).thenReturn(host);
+        doThrow(new OptimisticLockingFailureException("Calendar changed")).when(accommodationService).reserveTimeslot(any(), any(), any());
+
+        assertThrows(OptimisticLockingFailureException.class, () -> reservationService.saveNewReservation(reservationDto));
+        assertEquals(ReservationStatus.Denied, reservation.getReservationStatus());
+
+        verify(reservationRepository, times(3)).save(reservation);
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    public void testAcceptReservationRequest_ShouldApproveSendNotificationAndReturnTrue_EndDatePast() {
         Account guest = new Account();
         guest.setSettings(new HashSet<>(Arrays.asList(Settings.RESERVATION_RESPONSE_NOTIFICATION)));
         Account host = new Account();
@@ -412,45 +449,41 @@ public class ReservationServiceTest {
         boolean result = reservationService.acceptReservationRequest(VALID_RESERVATION_ID);
 
         assertTrue(result);
-        Thread.sleep(500);
 
-        assertEquals(ReservationStatus.Done, reservation.getReservationStatus());
+        assertEquals(ReservationStatus.Approved, reservation.getReservationStatus());
 
         verify(reservationRepository, atLeast(1)).save(reservation);
         verify(reservationRepository).findById(VALID_RESERVATION_ID);
-        verify(reservationRepository).findPendingByAccommodationId(accommodation.getId());
+        verify(reservationRepository).findPendingOverlapping(accommodation.getId(), reservation.getStartDate(), reservation.getStartDate().plusDays(reservation.getDays()));
         verify(notificationService).saveAndSendNotification(any(Notification.class));
         verifyNoMoreInteractions(notificationService);
 
     }
 
-    @ParameterizedTest
-    @MethodSource("provideDateRanges")
-    public void testDenyOverlappingRequests_ShouldDenyThree(int start, int end, int overlap) {
-        Accommodation accommodation = new Accommodation();
-        accommodation.setId(VALID_ACCOMMODATION_ID);
-        // reservation is from 10 to 20
-        // input params are start, end
-        LocalDate date = LocalDate.now();
-        Reservation reservation = new Reservation(null, date.plusDays(10), LocalDate.now(), 10, 3, 300, 1L, 6L, accommodation, ReservationStatus.Approved);
-        Reservation reservation2 = new Reservation(null, date.plusDays(start), LocalDate.now(), end - start, 3, 300, 1L, 6L, accommodation, ReservationStatus.Pending);
-        when(reservationRepository.findPendingByAccommodationId(accommodation.getId())).thenReturn(List.of(reservation2));
-        reservationService.denyOverlappingRequests(reservation.getStartDate(), reservation.getStartDate().plusDays(reservation.getDays()), accommodation.getId());
-        verify(reservationRepository).findPendingByAccommodationId(accommodation.getId());
-        if (overlap == 1) {
-            assertEquals(ReservationStatus.Denied, reservation2.getReservationStatus());
-            verify(reservationRepository).save(reservation2);
-        } else {
-            verifyNoMoreInteractions(reservationRepository);
-        }
+    @Test
+    public void testDenyOverlappingRequests_ShouldDenyAllInOneUpdate() {
+        LocalDate startDate = LocalDate.now().plusDays(10);
+        LocalDate endDate = startDate.plusDays(10);
+        List<Object[]> overlapping = new ArrayList<>();
+        overlapping.add(new Object[]{31L, 4L, 1L});
+        overlapping.add(new Object[]{32L, 5L, 1L});
+        when(reservationRepository.findPendingOverlapping(VALID_ACCOMMODATION_ID, startDate, endDate)).thenReturn(overlapping);
+
+        List<Long> denied = reservationService.denyOverlappingRequests(startDate, endDate, VALID_ACCOMMODATION_ID);
+
+        assertEquals(List.of(31L, 32L), denied);
+        verify(reservationRepository).denyPending(List.of(31L, 32L));
+        verify(reservationRepository, never()).save(any(Reservation.class));
     }
 
-    private static Collection provideDateRanges() {
-        return Arrays.asList(
-                new Integer[][]{
-                        {9, 15, 1}, {8, 11, 1}, {12, 21, 1}, {12, 18, 1}, {3, 4, 0}, {21, 22, 0}, {10, 20, 1}
-                }
-        );
+    @Test
+    public void testDenyOverlappingRequests_ShouldSkipUpdate_NoOverlappingRequests() {
+        LocalDate startDate = LocalDate.now().plusDays(10);
+        when(reservationRepository.findPendingOverlapping(VALID_ACCOMMODATION_ID, startDate, startDate.plusDays(3))).thenReturn(List.of());
+
+        assertTrue(reservationService.denyOverlappingRequests(startDate, startDate.plusDays(3), VALID_ACCOMMODATION_ID).isEmpty());
+        verify(reservationRepository, never()).denyPending(any());
+        verifyNoInteractions(notificationService);
     }
 
 
@@ -490,4 +523,16 @@ public class ReservationServiceTest {
         verify(notificationService).saveAndSendNotification(any(Notification.class));
         verifyNoMoreInteractions(notificationService);
     }
+
+    @Test
+    public void save_ShouldThrowOverlappingReservationException_StayAlreadyBooked(){
+        ReservationDto reservationDto = new ReservationDto(VALID_RESERVATION_ID, LocalDate.now().plusDays(5), LocalDate.now(), 3, 300, ReservationStatus.Approved, VALID_ACCOMMODATION_ID, 6L, 1L, 3);
+        Reservation reservation = new Reservation(VALID_RESERVATION_ID, reservationDto.getStartDate(), LocalDate.now(), 3, 3, 300, 1L, 6L, null, ReservationStatus.Approved);
+        when(reservationMapper.fromDto(reservationDto)).thenReturn(reservation);
+        when(accommodationService.findModelById(VALID_ACCOMMODATION_ID)).thenReturn(new Accommodation());
+        when(reservationRepository.save(reservation)).thenThrow(new DataIntegrityViolationException("conflicting key value violates exclusion constraint \"" + ReservationOverlapConstraint.CONSTRAINT_NAME + "\""));
+
+        OverlappingReservationException exception = assertThrows(OverlappingReservationException.class, () -> reservationService.save(reservationDto));
+        assertEquals("Accommodation is already booked for these dates!", exception.getMessage());
+    }
 }
@@ -0,0 +1,75 @@
+package com.komsije.booking.service;
+
+import com.komsije.booking.model.Account;
+import com.komsije.booking.model.Notification;
+import com.komsije.booking.model.Settings;
+import com.komsije.booking.repository.AccountRepository;
+import com.komsije.booking.repository.ReservationRepository;
+import com.komsije.booking.service.interfaces.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+public class StayTransitionerTest {
+    private ReservationRepository reservationRepository;
+    private AccountRepository accountRepository;
+    private NotificationService notificationService;
+    private StayTransitioner stayTransitioner;
+
+    @BeforeEach
+    public void setUp() {
+        reservationRepository = mock(ReservationRepository.class);
+        accountRepository = mock(AccountRepository.class);
+        notificationService = mock(NotificationService.class);
+        stayTransitioner = new StayTransitioner(reservationRepository, accountRepository, notificationService);
+        when(accountRepository.findAllById(anyIterable())).thenReturn(List.of(
+                account(2L, "host@12.com", Set.of()),
+                account(6L, "guest@12.com", Set.of(Settings.RESERVATION_RESPONSE_NOTIFICATION)),
+                account(7L, "quiet@12.com", Set.of())));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void activate_ShouldActivateBatchAndNotifyGuestsWithNotificationsOn() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{4L, 6L, 2L});
+        rows.add(new Object[]{5L, 7L, 2L});
+
+        assertThat(stayTransitioner.activate(rows)).containsExactly(4L, 5L);
+
+        verify(reservationRepository).activateApproved(List.of(4L, 5L));
+        verify(accountRepository, times(1)).findAllById(anyIterable());
+        ArgumentCaptor<List<Notification>> notifications = ArgumentCaptor.forClass(List.class);
+        verify(notificationService).saveAndSendNotifications(notifications.capture());
+        assertThat(notifications.getValue()).hasSize(1);
+        assertThat(notifications.getValue().get(0).getMessage()).isEqualTo("Your stay with host host@12.com has started!");
+    }
+
+    @Test
+    public void finish_ShouldSkipNotifications_GuestsOptedOut() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{5L, 7L, 2L});
+
+        assertThat(stayTransitioner.finish(rows)).containsExactly(5L);
+
+        verify(reservationRepository).finishActive(List.of(5L));
+        verifyNoInteractions(notificationService);
+    }
+
+    private Account account(Long id, String email, Set<Settings> settings) {
+        Account account = new Account();
+        account.setId(id);
+        account.setEmail(email);
+        account.setSettings(new HashSet<>(settings));
+        return account;
+    }
+}